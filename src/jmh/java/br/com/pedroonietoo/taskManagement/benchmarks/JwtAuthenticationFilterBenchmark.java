@@ -0,0 +1,92 @@
+package br.com.pedroonietoo.taskManagement.benchmarks;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.pedroonietoo.taskManagement.filters.JwtAuthenticationFilter;
+import br.com.pedroonietoo.taskManagement.models.Role;
+import br.com.pedroonietoo.taskManagement.models.UserModel;
+import br.com.pedroonietoo.taskManagement.repositories.UserRepository;
+import br.com.pedroonietoo.taskManagement.services.JwtService;
+import br.com.pedroonietoo.taskManagement.services.TokenRevocationService;
+import br.com.pedroonietoo.taskManagement.services.UserService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+
+/**
+ * The whole filter for one authenticated request, with the user lookup answered in memory so only the filter's
+ * own work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"0", "10000"})
+    public long tokenCacheSize;
+
+    @Param({"false", "true"})
+    public boolean claimsPrincipal;
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setup() {
+        UserModel user = UserModel.builder()
+                .id(UUID.randomUUID())
+                .email("bench@example.com")
+                .role(Role.ROLE_USER)
+                .version(0L)
+                .build();
+        JwtService jwtService = JwtServiceBenchmark.jwtService(tokenCacheSize);
+        UserService userService = new UserService(null) {
+            @Override
+            public UserDetailsService userDetailsService() {
+                return username -> user;
+            }
+        };
+        // the version check reads the database once per user and period, which a measurement second does not reach
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findVersionById(user.getId())).thenReturn(Optional.of(0L));
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(userRepository, TimeUnit.HOURS.toMillis(1), 10_000);
+        filter = new JwtAuthenticationFilter(jwtService, userService, tokenRevocationService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "claimsPrincipalEnabled", claimsPrincipal);
+        authorizationHeader = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Object doFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks/");
+        request.addHeader("Authorization", authorizationHeader);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
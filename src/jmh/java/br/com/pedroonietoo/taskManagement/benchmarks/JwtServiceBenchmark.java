@@ -0,0 +1,110 @@
+package br.com.pedroonietoo.taskManagement.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.pedroonietoo.taskManagement.models.Role;
+import br.com.pedroonietoo.taskManagement.models.UserModel;
+import br.com.pedroonietoo.taskManagement.services.JwtService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Token issuing and checking. The legacy/verify benchmarks compare the per-request cost of the original
+ * extract-then-validate sequence with a single verification, with and without the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    static final String SECRET = "88f4589d9a0b71c02a272cca6d7539eab8529bcbb452cc3ea21b2996f3bd21bf";
+
+    private JwtService cachedJwtService;
+    private JwtService uncachedJwtService;
+    private UserDetails user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        cachedJwtService = jwtService(10_000);
+        uncachedJwtService = jwtService(0);
+        user = UserModel.builder().email("bench@example.com").role(Role.ROLE_USER).build();
+        token = cachedJwtService.generateToken(user);
+    }
+
+    static JwtService jwtService(long cacheSize) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpirationMs", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(jwtService, "verifiedTokenCacheSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService;
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachedJwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUserName() {
+        return uncachedJwtService.extractUserName(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return uncachedJwtService.isTokenValid(token, user);
+    }
+
+    /**
+     * What the filter did before: extractUserName, then isTokenValid parsing the token again for the subject and a
+     * third time for the expiration, each parse decoding the key and building a new parser.
+     */
+    @Benchmark
+    public boolean legacyExtractThenValidate() {
+        String userName = legacyClaims(token).getSubject();
+        return userName.equals(user.getUsername())
+                && legacyClaims(token).getSubject().equals(user.getUsername())
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean verifyOnce() {
+        Claims claims = uncachedJwtService.verify(token);
+        return uncachedJwtService.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public boolean verifyCached() {
+        Claims claims = cachedJwtService.verify(token);
+        return cachedJwtService.isTokenValid(claims, user);
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.pedroonietoo.taskManagement.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.pedroonietoo.taskManagement.services.PasswordHashingService;
+
+/**
+ * BCrypt hashing and checking at the costs found in stored hashes: 10 (former Spring encoder default), 12 (former
+ * /users hashing) and 11, what calibration picks for a 250 ms target on a typical server core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    @Param({"10", "11", "12"})
+    public int cost;
+
+    private PasswordHashingService passwordHashingService;
+    private String hash;
+
+    @Setup
+    public void setup() {
+        passwordHashingService = new PasswordHashingService(cost);
+        hash = passwordHashingService.encode("correct horse battery staple");
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordHashingService.encode("correct horse battery staple");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordHashingService.matches("correct horse battery staple", hash);
+    }
+}
@@ -0,0 +1,102 @@
+package br.com.pedroonietoo.taskManagement.benchmarks;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.pedroonietoo.taskManagement.config.RateLimitProperties;
+import br.com.pedroonietoo.taskManagement.filters.RateLimitFilter;
+import br.com.pedroonietoo.taskManagement.models.Role;
+import br.com.pedroonietoo.taskManagement.models.UserModel;
+import br.com.pedroonietoo.taskManagement.services.RateLimitService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/**
+ * The rate limit filter for authenticated requests spread over {@code users} buckets, with limits high enough that
+ * nothing is rejected. {@code baseline} passes the same request straight through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    @Param({"1", "100000"})
+    public int users;
+
+    private static final FilterChain CHAIN = (request, response) -> {
+    };
+    private static final Filter PASS = (request, response, chain) -> chain.doFilter(request, response);
+
+    private RateLimitFilter filter;
+    private UsernamePasswordAuthenticationToken[] authentications;
+
+    @Setup
+    public void setup() {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit(1_000_000_000L, 1_000_000_000d);
+        RateLimitProperties properties = new RateLimitProperties(true, 1_000_000, Duration.ofMinutes(10), List.of(
+                new RateLimitProperties.Rule("auth", List.of("/api/v1/signin", "/api/v1/signup"), Set.of("POST"), limit, Map.of()),
+                new RateLimitProperties.Rule("api", List.of("/tasks/**", "/users/**"), Set.of(), limit, Map.of())));
+        filter = new RateLimitFilter(new RateLimitService(properties), properties, new ObjectMapper(), new SimpleMeterRegistry());
+        filter.init();
+        authentications = new UsernamePasswordAuthenticationToken[users];
+        for (int i = 0; i < users; i++) {
+            UserModel user = UserModel.builder().id(UUID.randomUUID()).role(Role.ROLE_USER).build();
+            authentications[i] = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Request {
+
+        private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks/");
+        private final MockHttpServletResponse response = new MockHttpServletResponse();
+        private int next = ThreadLocalRandom.current().nextInt(1 << 20);
+    }
+
+    @Benchmark
+    public Object baseline(Request request) throws ServletException, IOException {
+        return run(request, PASS);
+    }
+
+    @Benchmark
+    public Object doFilter(Request request) throws ServletException, IOException {
+        return run(request, filter);
+    }
+
+    private Object run(Request request, Filter target) throws ServletException, IOException {
+        SecurityContextHolder.getContext().setAuthentication(authentications[request.next++ % users]);
+        target.doFilter(request.request, request.response, CHAIN);
+        SecurityContextHolder.clearContext();
+        return request.response;
+    }
+}
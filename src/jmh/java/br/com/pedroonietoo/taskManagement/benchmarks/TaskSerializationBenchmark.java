@@ -0,0 +1,118 @@
+package br.com.pedroonietoo.taskManagement.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import br.com.pedroonietoo.taskManagement.models.Priority;
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+
+/**
+ * Serialization of task lists in each response encoding, with mappers configured like the application's, with
+ * and without gzip. The encoded size of each combination is reported by {@link #payloadSize} as its {@code bytes}
+ * secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskSerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectMapper objectMapper;
+    private List<TaskModel> tasks;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        tasks = tasks(size);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long bytes;
+    }
+
+    static List<TaskModel> tasks(int size) throws Exception {
+        List<TaskModel> tasks = new ArrayList<>(size);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+        UUID userId = UUID.randomUUID();
+        for (int i = 0; i < size; i++) {
+            TaskModel task = new TaskModel();
+            task.setId(UUID.randomUUID());
+            task.setTitle("Task " + i);
+            task.setDescription("Description of task " + i + " with a few more words to look like real input");
+            task.setStartAt(start.plusHours(i));
+            task.setEndAt(start.plusHours(i + 1));
+            task.setPriority(Priority.HIGH);
+            task.setUserId(userId);
+            task.setCreatedAt(start.minusDays(1));
+            task.setUpdatedAt(start.minusDays(1));
+            task.setVersion(0L);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            objectMapper.writeValue(out, tasks);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes the list once to report its size; its time is a single cold call and means nothing. Event counters are
+     * summed over the measurement iterations, hence a single one.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public byte[] payloadSize(PayloadSize payloadSize) throws IOException {
+        byte[] document = serializeList();
+        payloadSize.bytes = document.length;
+        return document;
+    }
+}
@@ -0,0 +1,70 @@
+package br.com.pedroonietoo.taskManagement.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.pedroonietoo.taskManagement.services.TimingWheel;
+
+/**
+ * Moving and adding timers on a wheel already holding {@code pending} timers spread over one hour of 1 second
+ * ticks, as task updates and creations do on the reminder thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TimingWheelBenchmark {
+
+    private static final int HORIZON_TICKS = 3600;
+
+    @Param({"1000", "1000000"})
+    public int pending;
+
+    private static final class Timer extends TimingWheel.Timer {
+    }
+
+    private TimingWheel wheel;
+    private Timer[] timers;
+    private final Timer extra = new Timer();
+
+    @Setup
+    public void setup() {
+        wheel = new TimingWheel(1_000_000);
+        timers = new Timer[pending];
+        for (int i = 0; i < pending; i++) {
+            timers[i] = new Timer();
+            wheel.schedule(timers[i], deadline());
+        }
+    }
+
+    @Benchmark
+    public boolean reschedule() {
+        var timer = timers[ThreadLocalRandom.current().nextInt(pending)];
+        wheel.schedule(timer, deadline());
+        return timer.isScheduled();
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        wheel.schedule(extra, deadline());
+        return wheel.cancel(extra);
+    }
+
+    private long deadline() {
+        return wheel.nextTick() + ThreadLocalRandom.current().nextInt(HORIZON_TICKS);
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.pedroonietoo.taskManagement.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * The data source JPA and everything else use. The lazy proxy only takes a real connection at the first
+     * statement, once the transaction's read-only flag is known, so the routing can look at it.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                 DataSourceRoutingProperties routing, MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (DataSourceRoutingProperties.Replica replica : routing.replicas()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + replicas.size());
+            dataSource.setJdbcUrl(replica.url());
+            dataSource.setUsername(replica.username() != null ? replica.username() : properties.determineUsername());
+            dataSource.setPassword(replica.password() != null ? replica.password() : properties.determinePassword());
+            dataSource.setReadOnly(true);
+            dataSource.setConnectionTimeout(routing.connectionTimeout().toMillis());
+            // start even if a replica is down, the health check brings it in later
+            dataSource.setInitializationFailTimeout(-1);
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(dataSource);
+        }
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                routing.stickiness(), routing.healthCheckInterval()));
+    }
+}
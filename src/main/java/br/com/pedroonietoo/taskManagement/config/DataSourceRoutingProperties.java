@@ -0,0 +1,23 @@
+package br.com.pedroonietoo.taskManagement.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Read replicas for read-only transactions. A replica without username or password uses the primary's.
+ */
+@ConfigurationProperties(prefix = "datasource.routing")
+public record DataSourceRoutingProperties(
+        @DefaultValue List<Replica> replicas,
+        // after a write, its author keeps reading from the primary this long
+        @DefaultValue("5s") Duration stickiness,
+        @DefaultValue("5s") Duration healthCheckInterval,
+        // how long a read waits for a replica connection before trying the next one
+        @DefaultValue("1s") Duration connectionTimeout) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
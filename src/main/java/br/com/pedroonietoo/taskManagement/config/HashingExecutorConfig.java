@@ -0,0 +1,54 @@
+package br.com.pedroonietoo.taskManagement.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+@Configuration
+public class HashingExecutorConfig {
+
+    @Value("${hashing.pool-size}")
+    private int poolSize;
+
+    @Value("${hashing.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${hashing.follow-up-pool-size}")
+    private int followUpPoolSize;
+
+    /**
+     * Password hashing is pure CPU, so it gets one thread per core and a short queue; anything beyond that is
+     * rejected right away instead of piling up behind request threads.
+     */
+    @Bean
+    public ThreadPoolExecutor passwordHashingExecutor(MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "passwordHashing", Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * Runs what follows a hash, which mostly waits on the database. Its queue is not bounded: every task in it comes
+     * from a hash the hashing pool already admitted.
+     */
+    @Bean
+    public ThreadPoolExecutor passwordFollowUpExecutor(MeterRegistry meterRegistry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(followUpPoolSize, followUpPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("password-follow-up-"));
+        new ExecutorServiceMetrics(executor, "passwordFollowUp", Tags.empty()).bindTo(meterRegistry);
+        return executor;
+    }
+}
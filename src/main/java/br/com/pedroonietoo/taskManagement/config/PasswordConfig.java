@@ -1,15 +1,31 @@
 package br.com.pedroonietoo.taskManagement.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+
+import br.com.pedroonietoo.taskManagement.services.PasswordHashingService;
 
 @Configuration
 public class PasswordConfig {
 
+    @Value("${password.hashing.cost}")
+    private int cost;
+
+    @Value("${password.hashing.min-cost}")
+    private int minCost;
+
+    @Value("${password.hashing.max-cost}")
+    private int maxCost;
+
+    @Value("${password.hashing.target-ms}")
+    private long targetMs;
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordHashingService passwordEncoder() {
+        if (cost > 0) {
+            return new PasswordHashingService(cost);
+        }
+        return PasswordHashingService.calibrated(minCost, maxCost, targetMs);
     }
-}
\ No newline at end of file
+}
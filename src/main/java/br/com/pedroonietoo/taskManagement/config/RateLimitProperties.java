@@ -0,0 +1,35 @@
+package br.com.pedroonietoo.taskManagement.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import br.com.pedroonietoo.taskManagement.models.Role;
+
+/**
+ * Request rate limits, checked in order: the first rule whose paths (and methods, when given) match a request
+ * applies. Authenticated requests get a bucket per user, anonymous ones per client IP.
+ */
+@ConfigurationProperties(prefix = "rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        // at most this many buckets are kept; the least recently used ones go first
+        @DefaultValue("100000") long maxKeys,
+        // a bucket unused for this long is dropped, it would be full again by then anyway
+        @DefaultValue("10m") Duration idleExpiry,
+        @DefaultValue List<Rule> rules) {
+
+    public record Rule(String name, List<String> paths, @DefaultValue Set<String> methods, Limit limit,
+            @DefaultValue Map<Role, Limit> roles) {
+    }
+
+    /**
+     * Up to {@code capacity} requests at once, then {@code perSecond} on average.
+     */
+    public record Limit(long capacity, double perSecond) {
+    }
+}
@@ -0,0 +1,165 @@
+package br.com.pedroonietoo.taskManagement.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+
+import br.com.pedroonietoo.taskManagement.models.UserModel;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Gives read-only transactions a connection to a healthy replica, round robin, and everything else one to the
+ * primary. Replicas are checked in the background and skipped while down; one that fails to hand out a connection is
+ * marked down on the spot and the read moves on, to the primary if no replica is left.
+ *
+ * <p>Once a write commits, its author (the authenticated user, or the client IP when anonymous) reads from the
+ * primary for the stickiness window, so replication lag never hides their own changes from them.
+ */
+@Slf4j
+class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Cache<Object, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthCheck;
+
+    ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, Duration stickiness,
+                             Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(stickiness)
+                .build();
+        if (this.replicas.isEmpty()) {
+            this.healthCheck = null;
+        } else {
+            this.healthCheck = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-health-"));
+            this.healthCheck.scheduleWithFixedDelay(this::checkReplicas, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriter();
+            return primary.getConnection();
+        }
+        Object reader = currentClient();
+        if (reader != null && recentWriters.getIfPresent(reader) != null) {
+            return primary.getConnection();
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.up) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.down(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Not supported: the pools behind this hold connections opened with their configured credentials, and Hikari
+     * refuses this call as well.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Connections use the configured credentials");
+    }
+
+    @Override
+    public void close() {
+        if (healthCheck != null) {
+            healthCheck.shutdownNow();
+        }
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private void rememberWriter() {
+        Object writer = currentClient();
+        if (writer == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(writer, Boolean.TRUE);
+            }
+        });
+    }
+
+    private static Object currentClient() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserModel user) {
+            return user.getId();
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest().getRemoteAddr() : null;
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(1)) {
+                    replica.up();
+                } else {
+                    replica.down(null);
+                }
+            } catch (SQLException e) {
+                replica.down(e);
+            }
+        }
+    }
+
+    private static class Replica {
+
+        private final HikariDataSource dataSource;
+        private volatile boolean up = true;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        void up() {
+            if (!up) {
+                up = true;
+                log.info("Replica {} is back, reads go to it again", dataSource.getPoolName());
+            }
+        }
+
+        void down(SQLException cause) {
+            if (up) {
+                up = false;
+                log.warn("Replica {} is down, reads go elsewhere until it recovers: {}", dataSource.getPoolName(),
+                        cause != null ? cause.getMessage() : "connection not valid");
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package br.com.pedroonietoo.taskManagement.config;
+
+import java.util.Locale;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import br.com.pedroonietoo.taskManagement.models.Priority;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * Query parameters take priority names in any case, like JSON bodies do through
+     * {@code spring.jackson.mapper.accept-case-insensitive-enums}, so {@code ?priority=low} keeps working.
+     */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, Priority.class,
+                value -> value.isBlank() ? null : Priority.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+    }
+}
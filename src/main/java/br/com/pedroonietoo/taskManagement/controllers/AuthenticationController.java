@@ -1,5 +1,7 @@
 package br.com.pedroonietoo.taskManagement.controllers;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -19,12 +21,12 @@ public class AuthenticationController {
     private final AuthenticationService authenticationService;
 
     @PostMapping("/signup")
-    public JwtAuthenticationResponse signup(@RequestBody SignUpRequest request) {
+    public CompletableFuture<JwtAuthenticationResponse> signup(@RequestBody SignUpRequest request) {
         return authenticationService.signup(request);
     }
 
     @PostMapping("/signin")
-    public JwtAuthenticationResponse signin(@RequestBody SignInRequest request) {
+    public CompletableFuture<JwtAuthenticationResponse> signin(@RequestBody SignInRequest request) {
         return authenticationService.signin(request);
     }
 }
\ No newline at end of file
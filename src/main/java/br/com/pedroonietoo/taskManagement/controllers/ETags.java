@@ -0,0 +1,102 @@
+package br.com.pedroonietoo.taskManagement.controllers;
+
+import java.util.List;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import br.com.pedroonietoo.taskManagement.dtos.SparseFields;
+
+/**
+ * ETags are the entity version in quotes, followed by the format and the {@code fields} for any representation
+ * other than the full JSON document ({@code "3"}, {@code "3-cbor"}, {@code "3-json-id,title"}), so that a cache
+ * never answers 304 with a variant the client cannot read. Responses carrying them also send {@code Vary: Accept}.
+ * The update and delete queries take the version to match, or {@link #ANY_VERSION}.
+ */
+final class ETags {
+
+    static final long ANY_VERSION = -1;
+
+    static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    static final MediaType CBOR = MediaType.valueOf("application/cbor");
+
+    // in order of preference when the client accepts several equally
+    private static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, SMILE, CBOR);
+
+    private ETags() {
+    }
+
+    /**
+     * Picks the format of a single entity response from the Accept header, the way the message converters would,
+     * so that the ETag names the encoding actually sent. Returns {@code null} when none is acceptable.
+     */
+    static MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType best = null;
+        double bestQuality = 0;
+        for (MediaType format : FORMATS) {
+            // the most specific range including the format gives its quality, so "*/*, application/cbor;q=0" excludes CBOR
+            MediaType range = null;
+            for (MediaType candidate : accepted) {
+                if (candidate.includes(format) && (range == null || specificity(candidate) > specificity(range))) {
+                    range = candidate;
+                }
+            }
+            if (range != null && range.getQualityValue() > bestQuality) {
+                best = format;
+                bestQuality = range.getQualityValue();
+            }
+        }
+        return best;
+    }
+
+    static String of(long version, SparseFields fields, MediaType format) {
+        StringBuilder tag = new StringBuilder().append(version);
+        if (fields != null || (format != null && !MediaType.APPLICATION_JSON.equalsTypeAndSubtype(format))) {
+            tag.append('-').append(format == null ? "json" : name(format));
+            if (fields != null) {
+                tag.append('-').append(String.join(",", fields.names()));
+            }
+        }
+        return tag.toString();
+    }
+
+    /**
+     * Returns the version an If-Match header asks for: {@link #ANY_VERSION} when absent or "*", {@code null} when
+     * it cannot match any version (a weak, malformed or multi-value tag). The tag of any representation matches its
+     * version.
+     */
+    static Long ifMatchVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return ANY_VERSION;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return null;
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        int variant = value.indexOf('-');
+        try {
+            long version = Long.parseLong(variant < 0 ? value : value.substring(0, variant));
+            return version < 0 ? null : version;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String name(MediaType format) {
+        return format.equalsTypeAndSubtype(SMILE) ? "smile" : format.equalsTypeAndSubtype(CBOR) ? "cbor" : "json";
+    }
+
+    private static int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+}
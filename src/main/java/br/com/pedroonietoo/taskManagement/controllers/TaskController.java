@@ -2,10 +2,28 @@ package br.com.pedroonietoo.taskManagement.controllers;
 
 import br.com.pedroonietoo.taskManagement.TaskManagementApiApplication;
 import br.com.pedroonietoo.taskManagement.errors.ErrorResponse;
+import br.com.pedroonietoo.taskManagement.dtos.BatchItemResult;
+import br.com.pedroonietoo.taskManagement.dtos.CursorPage;
+import br.com.pedroonietoo.taskManagement.dtos.PageCursor;
+import br.com.pedroonietoo.taskManagement.dtos.SearchCursor;
+import br.com.pedroonietoo.taskManagement.dtos.SparseFields;
 import br.com.pedroonietoo.taskManagement.dtos.TaskDto;
-import br.com.pedroonietoo.taskManagement.models.TaskModel;
+import br.com.pedroonietoo.taskManagement.dtos.TaskFilter;
+import br.com.pedroonietoo.taskManagement.dtos.TaskStats;
+import br.com.pedroonietoo.taskManagement.dtos.UserView;
+import br.com.pedroonietoo.taskManagement.mappers.TaskMapper;
+import br.com.pedroonietoo.taskManagement.models.Role;
+import br.com.pedroonietoo.taskManagement.models.UserModel;
 import br.com.pedroonietoo.taskManagement.repositories.TaskRepository;
 import br.com.pedroonietoo.taskManagement.repositories.UserRepository;
+import br.com.pedroonietoo.taskManagement.services.ExportFormat;
+import br.com.pedroonietoo.taskManagement.services.ExportService;
+import br.com.pedroonietoo.taskManagement.services.TaskBatchService;
+import br.com.pedroonietoo.taskManagement.services.TaskChangeService;
+import br.com.pedroonietoo.taskManagement.services.TaskReminderService;
+import br.com.pedroonietoo.taskManagement.services.TaskStreamService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,15 +31,27 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.beans.BeanUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Tag(name = "Task", description = "Everything aboyt tasks")
@@ -29,12 +59,46 @@ import java.util.UUID;
 @RequestMapping("/tasks")
 public class TaskController {
 
+    // what ?fields= may ask for
+    static final Set<String> TASK_FIELDS = Set.of("id", "title", "description", "startAt", "endAt", "priority", "userId",
+            "createdAt", "updatedAt", "version");
+
     @Autowired
     private TaskRepository taskRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private TaskBatchService taskBatchService;
+
+    @Autowired
+    private TaskChangeService taskChangeService;
+
+    @Autowired
+    private TaskReminderService taskReminderService;
+
+    @Autowired
+    private TaskStreamService taskStreamService;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${tasks.batch.max-size}")
+    private int maxBatchSize;
+
+    @Value("${tasks.window.max-days}")
+    private long maxWindowDays;
+
+    @Value("${pagination.max-size}")
+    private int maxPageSize;
+
     @Operation(
             summary = "Creates a task",
             description = "Creates a task in the database.",
@@ -48,9 +112,7 @@ public class TaskController {
     })
     @PostMapping("/")
     public ResponseEntity createTask(@RequestBody @Valid TaskDto taskDto) {
-        var task = new TaskModel();
-        BeanUtils.copyProperties(taskDto, task);
-
+        var task = taskMapper.toModel(taskDto);
         var userId = task.getUserId();
         var userExists = userRepository.findById(userId);
 
@@ -64,92 +126,417 @@ public class TaskController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Start/end date must be bigger than current date");
         }
 
-        if (task.getStartAt().isAfter(task.getEndAt())) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Start date must be before than end date");
+        var datesError = taskDto.datesError();
+        if (datesError != null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(datesError);
+        }
+        var saved = taskRepository.save(task);
+        taskReminderService.taskSaved(saved);
+        taskStreamService.taskCreated(saved);
+        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    }
+
+    @Operation(
+            summary = "Creates tasks in bulk",
+            description = "Creates many tasks at once. Each item is checked on its own and the response lists, by position, the id created or the reason it was rejected.",
+            tags = {"Task"}
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "All tasks created successfully", content = {@Content(schema = @Schema(implementation = BatchItemResult.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "207", description = "Some tasks were rejected", content = {@Content(schema = @Schema(implementation = BatchItemResult.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", description = "Empty or too large batch", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createTasks(@RequestBody List<TaskDto> taskDtos) {
+        if (taskDtos.isEmpty() || taskDtos.size() > maxBatchSize) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Batch must contain between 1 and " + maxBatchSize + " tasks");
         }
-        return ResponseEntity.status(HttpStatus.CREATED).body(taskRepository.save(task));
+        var results = taskBatchService.createAll(taskDtos);
+        var allCreated = results.stream().allMatch(result -> result.status() == HttpStatus.CREATED.value());
+        return ResponseEntity.status(allCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(results);
     }
 
     @Operation(
-            summary = "Lists all tasks",
-            description = "Lists all tasks in the database.",
+            summary = "Lists tasks",
+            description = "Lists tasks page by page, ordered by creation date. Pass the returned 'nextCursor' as 'cursor' to get the next page. 'fields' (e.g. id,title,startAt) limits each task to those fields.",
             tags = {"Task"}
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Tasks listed successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or unknown field", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
     })
     @GetMapping("/")
-    public ResponseEntity<List<TaskModel>> getTasks() {
-        return ResponseEntity.status(HttpStatus.OK).body(taskRepository.findAll());
+    public ResponseEntity<Object> getTasks(@ParameterObject TaskFilter filter,
+                                           @RequestParam(name = "cursor", required = false) String cursor,
+                                           @RequestParam(name = "size", defaultValue = "50") int size,
+                                           @RequestParam(name = "fields", required = false) String fields) {
+        PageCursor after;
+        SparseFields sparseFields;
+        try {
+            after = cursor == null ? null : PageCursor.decode(cursor);
+            sparseFields = SparseFields.parse(fields, TASK_FIELDS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        var pageSize = Math.max(1, Math.min(size, maxPageSize));
+        if (sparseFields != null) {
+            // only the asked columns (plus the cursor's) are selected
+            var rows = taskRepository.findPageColumns(filter, after, sparseFields.names(), pageSize + 1);
+            var page = CursorPage.of(rows, pageSize, row -> new PageCursor(row.get("createdAt", LocalDateTime.class), row.get("id", UUID.class)));
+            return ResponseEntity.status(HttpStatus.OK).body(new CursorPage<>(page.items().stream().map(sparseFields::pick).toList(), page.nextCursor()));
+        }
+        var tasks = taskRepository.findPage(filter, after, pageSize + 1);
+        var page = CursorPage.of(tasks, pageSize, task -> new PageCursor(task.getCreatedAt(), task.getId()));
+        return ResponseEntity.status(HttpStatus.OK).body(page);
+    }
+
+    @Operation(
+            summary = "Exports tasks",
+            description = "Streams every task matching the filters as NDJSON or CSV, in creation order. Users only export their own tasks, admins those of any user.",
+            tags = {"Task"}
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tasks exported successfully", content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@ParameterObject TaskFilter filter,
+                                                             @AuthenticationPrincipal UserModel principal,
+                                                             @RequestParam(name = "format", defaultValue = "NDJSON") ExportFormat format) {
+        var scopedFilter = principal.getRole() == Role.ROLE_ADMIN ? filter : new TaskFilter(principal.getId(), filter.priority(),
+                filter.startFrom(), filter.startTo(), filter.endFrom(), filter.endTo());
+        StreamingResponseBody body = out -> exportService.exportTasks(scopedFilter, format, out);
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + format.getExtension() + "\"")
+                .body(body);
+    }
+
+    @Operation(
+            summary = "Lists the authenticated user's tasks",
+            description = "Lists the caller's tasks page by page, ordered by start date ('order' = asc or desc). Pass the returned 'nextCursor' as 'cursor' to get the next page.",
+            tags = {"Task"}
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tasks listed successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
+    })
+    @GetMapping("/mine")
+    public ResponseEntity<Object> getMyTasks(@AuthenticationPrincipal UserModel principal,
+                                             @RequestParam(name = "cursor", required = false) String cursor,
+                                             @RequestParam(name = "size", defaultValue = "50") int size,
+                                             @RequestParam(name = "order", defaultValue = "asc") String order) {
+        PageCursor after;
+        try {
+            after = cursor == null ? null : PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        var pageSize = Math.max(1, Math.min(size, maxPageSize));
+        var tasks = taskRepository.findUserPage(principal.getId(), after, "desc".equalsIgnoreCase(order), pageSize + 1);
+        var page = CursorPage.of(tasks, pageSize, task -> new PageCursor(task.getStartAt(), task.getId()));
+        return ResponseEntity.status(HttpStatus.OK).body(page);
+    }
+
+    @Operation(
+            summary = "Lists tasks in a time window",
+            description = "Streams, ordered by start date, the tasks whose start/end period overlaps [from, to). Users only get their own tasks; admins may pass 'userId' or get everyone's.",
+            tags = {"Task"}
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tasks listed successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", description = "Invalid or too long window", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
+    })
+    @GetMapping("/window")
+    public ResponseEntity<StreamingResponseBody> getTaskWindow(@AuthenticationPrincipal UserModel principal,
+                                                               @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                               @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                               @RequestParam(name = "userId", required = false) UUID userId) {
+        if (!from.isBefore(to) || from.plusDays(maxWindowDays).isBefore(to)) {
+            var message = "'from' must be before 'to' and the window at most " + maxWindowDays + " days long";
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+        }
+        var scopedUserId = principal.getRole() == Role.ROLE_ADMIN ? userId : principal.getId();
+        StreamingResponseBody body = out -> exportService.exportTaskWindow(from, to, scopedUserId, ExportFormat.JSON, out);
+        return ResponseEntity.status(HttpStatus.OK).contentType(ExportFormat.JSON.getMediaType()).body(body);
+    }
+
+    @Operation(
+            summary = "Lists task changes",
+            description = "Returns the tasks created or updated and the ids of tasks deleted (or moved to another user) after the 'since' cursor, oldest first, with the cursor for the next sync. Without 'since' every task is returned. Users only see changes to their own tasks. A cursor older than the tombstone retention gets 410, the client then syncs again without 'since'.",
+            tags = {"Task"}
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Changes listed successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "410", description = "Cursor too old, resync required", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<Object> getTaskChanges(@AuthenticationPrincipal UserModel principal,
+                                                 @RequestParam(name = "since", required = false) String since,
+                                                 @RequestParam(name = "size", defaultValue = "100") int size) {
+        PageCursor after;
+        try {
+            after = since == null ? null : PageCursor.decode(since);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        if (taskChangeService.isExpired(after)) {
+            return ResponseEntity.status(HttpStatus.GONE).body("Resync required: cursor is older than the kept deletions");
+        }
+        var scopedUserId = principal.getRole() == Role.ROLE_ADMIN ? null : principal.getId();
+        var pageSize = Math.max(1, Math.min(size, maxPageSize));
+        return ResponseEntity.status(HttpStatus.OK).body(taskChangeService.changesSince(scopedUserId, after, pageSize));
+    }
+
+    @Operation(
+            summary = "Streams changes to the caller's tasks",
+            description = "Server-sent events: 'created' and 'updated' carry the task, 'deleted' its id, as changes are committed. A client too far behind gets 'resync' and should reload its tasks. The stream ends after 'tasks.stream.timeout-ms', clients reconnect.",
+            tags = {"Task"}
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stream opened successfully", content = {@Content(mediaType = "text/event-stream")}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTasks(@AuthenticationPrincipal UserModel principal) {
+        return taskStreamService.subscribe(principal.getId());
+    }
+
+    @Operation(
+            summary = "Lists the most urgent upcoming tasks",
+            description = "Returns the caller's 'limit' most urgent tasks that have not started yet, by priority then start date. Admins may pass 'userId' to get another user's.",
+            tags = {"Task"}
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tasks listed successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
+    })
+    @GetMapping("/next")
+    public ResponseEntity<Object> getNextTasks(@AuthenticationPrincipal UserModel principal,
+                                               @RequestParam(name = "limit", defaultValue = "10") int limit,
+                                               @RequestParam(name = "userId", required = false) UUID userId) {
+        var scopedUserId = principal.getRole() == Role.ROLE_ADMIN && userId != null ? userId : principal.getId();
+        var k = Math.max(1, Math.min(limit, maxPageSize));
+        return ResponseEntity.status(HttpStatus.OK).body(taskRepository.findNext(scopedUserId, LocalDateTime.now(), k));
+    }
+
+    @Operation(
+            summary = "Lists every user's most urgent upcoming tasks",
+            description = "Returns, for each user in id order and page by page, their 'limit' most urgent tasks that have not started yet, by priority then start date. Pass the returned 'nextCursor' as 'cursor' to get the next users. Admins only.",
+            tags = {"Task"}
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tasks listed successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "403", description = "Not an admin", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
+    })
+    @GetMapping("/next/by-user")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Object> getNextTasksByUser(@RequestParam(name = "limit", defaultValue = "10") int limit,
+                                                     @RequestParam(name = "cursor", required = false) String cursor,
+                                                     @RequestParam(name = "size", defaultValue = "50") int size) {
+        PageCursor after;
+        try {
+            after = cursor == null ? null : PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        var pageSize = Math.max(1, Math.min(size, maxPageSize));
+        var k = Math.max(1, Math.min(limit, maxPageSize));
+        var users = PageRequest.of(0, pageSize + 1);
+        var page = CursorPage.of(after == null
+                        ? userRepository.findAllByOrderByIdAsc(users)
+                        : userRepository.findByIdGreaterThanOrderByIdAsc(after.id(), users),
+                pageSize, user -> new PageCursor(null, user.id()));
+        var userIds = page.items().stream().map(UserView::id).toList();
+        var next = taskRepository.findNextByUser(userIds, LocalDateTime.now(), k);
+        return ResponseEntity.status(HttpStatus.OK).body(new CursorPage<>(next, page.nextCursor()));
+    }
+
+    @Operation(
+            summary = "Gets task statistics",
+            description = "Returns the caller's task counts: total, by priority, overdue (ended before today) and upcoming this week (starting today or within the next 6 days). Admins may pass 'userId' to get another user's.",
+            tags = {"Task"}
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Statistics returned successfully", content = {@Content(schema = @Schema(implementation = TaskStats.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStats> getTaskStats(@AuthenticationPrincipal UserModel principal,
+                                                  @RequestParam(name = "userId", required = false) UUID userId) {
+        var scopedUserId = principal.getRole() == Role.ROLE_ADMIN && userId != null ? userId : principal.getId();
+        return ResponseEntity.status(HttpStatus.OK).body(taskRepository.findStats(scopedUserId));
+    }
+
+    @Operation(
+            summary = "Searches tasks",
+            description = "Full-text search over task titles and descriptions, most relevant first. 'q' takes words, \"quoted phrases\", 'or' and -excluded words. Searches the caller's tasks; admins may pass 'userId' to search another user's. Pass the returned 'nextCursor' as 'cursor' to get the next page.",
+            tags = {"Task"}
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tasks found successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", description = "Empty query or invalid cursor", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
+    })
+    @GetMapping("/search")
+    public ResponseEntity<Object> searchTasks(@AuthenticationPrincipal UserModel principal,
+                                              @RequestParam(name = "q") String query,
+                                              @RequestParam(name = "userId", required = false) UUID userId,
+                                              @RequestParam(name = "cursor", required = false) String cursor,
+                                              @RequestParam(name = "size", defaultValue = "50") int size) {
+        if (query.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("'q' must not be empty");
+        }
+        SearchCursor after;
+        try {
+            after = cursor == null ? null : SearchCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        var scopedUserId = principal.getRole() == Role.ROLE_ADMIN && userId != null ? userId : principal.getId();
+        var pageSize = Math.max(1, Math.min(size, maxPageSize));
+        var hits = taskRepository.search(scopedUserId, query, after, pageSize + 1);
+        var page = CursorPage.ofEncoded(hits, pageSize, hit -> new SearchCursor(hit.rank(), hit.task().getId()).encode());
+        return ResponseEntity.status(HttpStatus.OK).body(page);
     }
 
     @Operation(
             summary = "List a task by id",
-            description = "Lists a specific task information by passing the id.",
+            description = "Lists a specific task information by passing the id. Users only see their own tasks, admins see any task. The ETag is the task version, followed by the format and fields when not the full JSON document; send it in If-None-Match to get a 304 while the task is unchanged, or in If-Match to update or delete this version. 'fields' limits the task to those fields.",
             tags = {"Task"}
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Task information listed successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", description = "Unknown field", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "304", description = "Task unchanged since the ETag in If-None-Match", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "404", description = "Task not found", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getTaskById(@PathVariable(name = "id") UUID id) {
-        var task = taskRepository.findById(id);
+    public ResponseEntity<Object> getTaskById(@PathVariable(name = "id") UUID id, @AuthenticationPrincipal UserModel principal,
+                                              @RequestParam(name = "fields", required = false) String fields,
+                                              @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        SparseFields sparseFields;
+        try {
+            sparseFields = SparseFields.parse(fields, TASK_FIELDS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        var task = principal.getRole() == Role.ROLE_ADMIN
+                ? taskRepository.findById(id)
+                : Optional.ofNullable(taskRepository.findByIdAndUserId(id, principal.getId()));
         if (task.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Task not found");
         }
-        return ResponseEntity.status(HttpStatus.OK).body(task);
+        // a matching If-None-Match is answered with 304 before the body is serialized
+        // the task usually comes from the cache, so the fields are picked from it instead of selected
+        Object body = sparseFields == null ? task.get() : sparseFields.pick(objectMapper.convertValue(task.get(), new TypeReference<Map<String, Object>>() {}));
+        // the format is picked here rather than by the converters, so that the ETag names it
+        var format = ETags.negotiate(accept);
+        var response = ResponseEntity.status(HttpStatus.OK)
+                .eTag(ETags.of(task.get().getVersion(), sparseFields, format))
+                .varyBy(HttpHeaders.ACCEPT);
+        return (format == null ? response : response.contentType(format)).body(body);
     }
 
     @Operation(
             summary = "Updates a user's information",
-            description = "Updates a user's information in the database.",
+            description = "Updates a user's information in the database. Users only update their own tasks, admins any task. Send the task's ETag in If-Match to only update the version you read.",
             tags = {"Task"}
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Task information updated successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
             @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")}),
             @ApiResponse(responseCode = "404", description = "Task not found", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "412", description = "Task changed since the ETag in If-Match", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
     })
     @PutMapping("/{id}")
-    public ResponseEntity<Object> updateTask(@PathVariable(name = "id") UUID id, @RequestBody @Valid TaskDto taskDto) {
-        Optional<TaskModel> task = taskRepository.findById(id);
-        if (task.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+    public ResponseEntity<Object> updateTask(@PathVariable(name = "id") UUID id, @AuthenticationPrincipal UserModel principal,
+                                             @RequestBody @Valid TaskDto taskDto,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        var version = ETags.ifMatchVersion(ifMatch);
+        if (version == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("Task was modified");
+        }
+        var datesError = taskDto.datesError();
+        if (datesError != null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(datesError);
         }
-        var taskData = task.get();
-        BeanUtils.copyProperties(taskDto, taskData);
 
-        var userId = taskData.getUserId();
-        var userExists = userRepository.findById(userId);
+        var userExists = userRepository.findById(taskDto.userId());
 
         if(userExists.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User id doesn't exists");
         }
 
-        return ResponseEntity.status(HttpStatus.OK).body(taskRepository.save(taskData));
+        // the task is not read first: the owner and version checks and the write are one statement
+        var ownerId = ownerScope(principal);
+        var updated = taskRepository.updateById(id, ownerId, version, taskDto.title(), taskDto.description(), taskDto.startAt(),
+                taskDto.endAt(), taskDto.priority(), taskDto.userId(), LocalDateTime.now());
+        if (updated.isEmpty()) {
+            return version != ETags.ANY_VERSION && isVisible(id, ownerId)
+                    ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("Task was modified")
+                    : ResponseEntity.status(HttpStatus.NOT_FOUND).body("Task not found");
+        }
+        var task = updated.get().task();
+        taskReminderService.taskSaved(task);
+        taskStreamService.taskUpdated(task, updated.get().previousUserId());
+        var format = ETags.negotiate(accept);
+        var response = ResponseEntity.status(HttpStatus.OK)
+                .eTag(ETags.of(task.getVersion(), null, format))
+                .varyBy(HttpHeaders.ACCEPT);
+        return (format == null ? response : response.contentType(format)).body(task);
     }
 
     @Operation(
             summary = "Deletes a task",
-            description = "Removes a task in the database.",
+            description = "Removes a task in the database. Users only delete their own tasks, admins any task. Send the task's ETag in If-Match to only delete the version you read.",
             tags = {"Task"}
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Task removed successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
             @ApiResponse(responseCode = "404", description = "Task not found", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "412", description = "Task changed since the ETag in If-Match", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> deleteTask(@PathVariable(name = "id") UUID id) {
-        var task = taskRepository.findById(id);
-        if (task.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Task not found");
+    public ResponseEntity<Object> deleteTask(@PathVariable(name = "id") UUID id, @AuthenticationPrincipal UserModel principal,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var version = ETags.ifMatchVersion(ifMatch);
+        if (version == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("Task was modified");
         }
-        taskRepository.delete(task.get());
+        var ownerId = ownerScope(principal);
+        var owner = taskRepository.deleteById(id, ownerId, version, LocalDateTime.now());
+        if (owner.isEmpty()) {
+            return version != ETags.ANY_VERSION && isVisible(id, ownerId)
+                    ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("Task was modified")
+                    : ResponseEntity.status(HttpStatus.NOT_FOUND).body("Task not found");
+        }
+        taskReminderService.taskDeleted(id);
+        taskStreamService.taskDeleted(id, owner.get());
         return ResponseEntity.status(HttpStatus.OK).body("Task deleted successfully");
     }
-}
\ No newline at end of file
+
+    // users only write their own tasks, admins any task: null lets the statements match any owner
+    private static UUID ownerScope(UserModel principal) {
+        return principal.getRole() == Role.ROLE_ADMIN ? null : principal.getId();
+    }
+
+    // someone else's task is reported as missing, like GET does
+    private boolean isVisible(UUID id, UUID ownerId) {
+        return ownerId == null ? taskRepository.existsById(id) : taskRepository.existsByIdAndUserId(id, ownerId);
+    }
+}
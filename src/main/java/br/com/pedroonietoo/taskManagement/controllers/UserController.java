@@ -1,27 +1,48 @@
 package br.com.pedroonietoo.taskManagement.controllers;
 
-import at.favre.lib.crypto.bcrypt.BCrypt;
 import br.com.pedroonietoo.taskManagement.TaskManagementApiApplication;
 import br.com.pedroonietoo.taskManagement.errors.ErrorResponse;
+import br.com.pedroonietoo.taskManagement.dtos.CursorPage;
+import br.com.pedroonietoo.taskManagement.dtos.PageCursor;
+import br.com.pedroonietoo.taskManagement.dtos.SparseFields;
 import br.com.pedroonietoo.taskManagement.dtos.UserDto;
+import br.com.pedroonietoo.taskManagement.dtos.UserView;
+import br.com.pedroonietoo.taskManagement.mappers.UserMapper;
+import br.com.pedroonietoo.taskManagement.models.Role;
 import br.com.pedroonietoo.taskManagement.models.UserModel;
+import br.com.pedroonietoo.taskManagement.repositories.TaskRepository;
 import br.com.pedroonietoo.taskManagement.repositories.UserRepository;
+import br.com.pedroonietoo.taskManagement.services.ExportFormat;
+import br.com.pedroonietoo.taskManagement.services.ExportService;
+import br.com.pedroonietoo.taskManagement.services.HashingExecutor;
+import br.com.pedroonietoo.taskManagement.services.TokenRevocationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,9 +51,33 @@ import java.util.regex.Pattern;
 @RequestMapping("/users")
 public class UserController {
 
+    // what ?fields= may ask for; never the password
+    static final Set<String> USER_FIELDS = Set.of("id", "username", "email", "role", "createdAt", "updatedAt", "version");
+
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    ExportService exportService;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    HashingExecutor hashingExecutor;
+
+    @Autowired
+    UserMapper userMapper;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${pagination.max-size}")
+    private int maxPageSize;
+
     @Operation(
             summary = "Creates a user",
             description = "Creates a user in the database.",
@@ -45,59 +90,153 @@ public class UserController {
             @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
     })
     @PostMapping("/")
-    public ResponseEntity<Object> createUser(@RequestBody @Valid UserDto userDto) {
-        var userModel = new UserModel();
-        BeanUtils.copyProperties(userDto, userModel);
+    public CompletableFuture<ResponseEntity<Object>> createUser(@RequestBody @Valid UserDto userDto) {
+        var userModel = userMapper.toModel(userDto);
         var user = userRepository.findByEmail(userModel.getEmail());
-        if (user != null) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("E-mail already in use");
+        if (user.isPresent()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT).body("E-mail already in use"));
         }
         if(!validate(userModel.getEmail())) {
-            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Invalid e-mail");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Invalid e-mail"));
         }
 
-        var passwordHashed = BCrypt.withDefaults().hashToString(12, userModel.getPassword().toCharArray());
-        userModel.setPassword(passwordHashed);
-        return ResponseEntity.status(HttpStatus.CREATED).body(userRepository.save(userModel));
+        return hashingExecutor.encode(userModel.getPassword()).thenApply(passwordHashed -> {
+            userModel.setPassword(passwordHashed);
+            userModel.setRole(Role.ROLE_USER);
+            return ResponseEntity.status(HttpStatus.CREATED).body(UserView.of(userRepository.save(userModel)));
+        });
     }
 
     @Operation(
-            summary = "Lists all users",
-            description = "Lists all users in the database.",
+            summary = "Lists users",
+            description = "Lists users page by page. Pass the returned 'nextCursor' as 'cursor' to get the next page. 'fields' (e.g. id,email) limits each user to those fields.",
             tags = {"User"}
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Users listed successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or unknown field", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
     })
     @GetMapping("/")
-    public ResponseEntity<List<UserModel>> getUsers() {
-        List<UserModel> usersList = userRepository.findAll();
-        return ResponseEntity.status(HttpStatus.OK).body(usersList);
+    public ResponseEntity<Object> getUsers(@RequestParam(name = "cursor", required = false) String cursor,
+                                           @RequestParam(name = "size", defaultValue = "50") int size,
+                                           @RequestParam(name = "fields", required = false) String fields) {
+        PageCursor after;
+        SparseFields sparseFields;
+        try {
+            after = cursor == null ? null : PageCursor.decode(cursor);
+            sparseFields = SparseFields.parse(fields, USER_FIELDS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        var pageSize = Math.max(1, Math.min(size, maxPageSize));
+        if (sparseFields != null) {
+            // only the asked columns (plus the id for the cursor) are selected
+            var rows = userRepository.findPageColumns(after == null ? null : after.id(), sparseFields.names(), pageSize + 1);
+            var page = CursorPage.of(rows, pageSize, row -> new PageCursor(null, row.get("id", UUID.class)));
+            return ResponseEntity.status(HttpStatus.OK).body(new CursorPage<>(page.items().stream().map(sparseFields::pick).toList(), page.nextCursor()));
+        }
+        var limit = PageRequest.of(0, pageSize + 1);
+        List<UserView> usersList = after == null
+                ? userRepository.findAllByOrderByIdAsc(limit)
+                : userRepository.findByIdGreaterThanOrderByIdAsc(after.id(), limit);
+        var page = CursorPage.of(usersList, pageSize, user -> new PageCursor(null, user.id()));
+        return ResponseEntity.status(HttpStatus.OK).body(page);
+    }
+
+    @Operation(
+            summary = "Exports users",
+            description = "Streams every user as NDJSON or CSV. Password hashes are not exported. Only admins can export users.",
+            tags = {"User"}
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Users exported successfully", content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+            @ApiResponse(responseCode = "403", description = "Not an admin", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
+    })
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(name = "format", defaultValue = "NDJSON") ExportFormat format) {
+        StreamingResponseBody body = out -> exportService.exportUsers(format, out);
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + format.getExtension() + "\"")
+                .body(body);
     }
 
     @Operation(
             summary = "List a user by id",
-            description = "Lists a specific user information by passing the id.",
+            description = "Lists a specific user information by passing the id. The ETag is the user version, followed by the format and fields when not the full JSON document; send it in If-None-Match to get a 304 while the user is unchanged, or in If-Match to update or delete this version. 'fields' limits the user to those fields.",
             tags = {"User"}
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User information listed successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", description = "Unknown field", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "304", description = "User unchanged since the ETag in If-None-Match", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "404", description = "User not found", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getUserById(@PathVariable(value = "id") UUID id) {
+    public ResponseEntity<Object> getUserById(@PathVariable(value = "id") UUID id,
+                                              @RequestParam(name = "fields", required = false) String fields,
+                                              @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        SparseFields sparseFields;
+        try {
+            sparseFields = SparseFields.parse(fields, USER_FIELDS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
         Optional<UserModel> user = userRepository.findById(id);
         if (user.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
         }
-        return ResponseEntity.status(HttpStatus.OK).body(user.get());
+        // a matching If-None-Match is answered with 304 before the body is serialized
+        // the user usually comes from the cache, so the fields are picked from it instead of selected
+        var view = UserView.of(user.get());
+        Object body = sparseFields == null ? view : sparseFields.pick(objectMapper.convertValue(view, new TypeReference<Map<String, Object>>() {}));
+        // the format is picked here rather than by the converters, so that the ETag names it
+        var format = ETags.negotiate(accept);
+        var response = ResponseEntity.status(HttpStatus.OK)
+                .eTag(ETags.of(view.version(), sparseFields, format))
+                .varyBy(HttpHeaders.ACCEPT);
+        return (format == null ? response : response.contentType(format)).body(body);
+    }
+
+    @Operation(
+            summary = "Lists a user's tasks",
+            description = "Lists the tasks of a user page by page, ordered by start date ('order' = asc or desc). Users can only list their own tasks.",
+            tags = {"User"}
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tasks listed successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "403", description = "Tasks of another user", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
+    })
+    @GetMapping("/{id}/tasks")
+    public ResponseEntity<Object> getUserTasks(@PathVariable(value = "id") UUID id,
+                                               @AuthenticationPrincipal UserModel principal,
+                                               @RequestParam(name = "cursor", required = false) String cursor,
+                                               @RequestParam(name = "size", defaultValue = "50") int size,
+                                               @RequestParam(name = "order", defaultValue = "asc") String order) {
+        if (principal.getRole() != Role.ROLE_ADMIN && !id.equals(principal.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Users can only list their own tasks");
+        }
+        PageCursor after;
+        try {
+            after = cursor == null ? null : PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        var pageSize = Math.max(1, Math.min(size, maxPageSize));
+        var tasks = taskRepository.findUserPage(id, after, "desc".equalsIgnoreCase(order), pageSize + 1);
+        var page = CursorPage.of(tasks, pageSize, task -> new PageCursor(task.getStartAt(), task.getId()));
+        return ResponseEntity.status(HttpStatus.OK).body(page);
     }
 
     @Operation(
             summary = "Updates a user's information",
-            description = "Updates a user's information in the database.",
+            description = "Updates a user's information in the database. Send the user's ETag in If-Match to only update the version you read.",
             tags = {"User"}
     )
     @ApiResponses({
@@ -105,38 +244,58 @@ public class UserController {
             @ApiResponse(responseCode = "400", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")}),
             @ApiResponse(responseCode = "404", description = "User not found", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "409", description = "User with same e-mail already exists", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "412", description = "User changed since the ETag in If-Match", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
     })
     @PutMapping("/{id}")
-    public ResponseEntity<Object> updateUser(@PathVariable(name = "id") UUID id, @RequestBody @Valid UserDto userDto) {
-        Optional<UserModel> user = userRepository.findById(id);
-        if (user.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+    public CompletableFuture<ResponseEntity<Object>> updateUser(@PathVariable(name = "id") UUID id, @RequestBody @Valid UserDto userDto,
+                                                                @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        var version = ETags.ifMatchVersion(ifMatch);
+        var format = ETags.negotiate(accept);
+        if (version == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("User was modified"));
         }
-        var userData = user.get();
-        BeanUtils.copyProperties(userDto, userData);
-        var passwordHashed = BCrypt.withDefaults().hashToString(12, userData.getPassword().toCharArray());
-        userData.setPassword(passwordHashed);
-        return ResponseEntity.status(HttpStatus.OK).body(userRepository.save(userData));
+        return hashingExecutor.encode(userDto.password()).thenApply(passwordHashed -> {
+            // the user is not read first: the version check and the write are one statement
+            var updated = userRepository.updateById(id, version, userDto.username(), userDto.email(), passwordHashed, LocalDateTime.now());
+            if (updated.isEmpty()) {
+                return version != ETags.ANY_VERSION && userRepository.existsById(id)
+                        ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("User was modified")
+                        : ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+            }
+            tokenRevocationService.revokeTokensOf(id);
+            var response = ResponseEntity.status(HttpStatus.OK)
+                    .eTag(ETags.of(updated.get().getVersion(), null, format))
+                    .varyBy(HttpHeaders.ACCEPT);
+            return (format == null ? response : response.contentType(format)).body(UserView.of(updated.get()));
+        });
     }
 
     @Operation(
             summary = "Deletes a user",
-            description = "Removes a user in the database.",
+            description = "Removes a user in the database. Send the user's ETag in If-Match to only delete the version you read.",
             tags = {"User"}
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User removed successfully", content = {@Content(schema = @Schema(implementation = TaskManagementApiApplication.class), mediaType = "application/json")}),
             @ApiResponse(responseCode = "404", description = "User not found", content = {@Content(schema = @Schema())}),
+            @ApiResponse(responseCode = "412", description = "User changed since the ETag in If-Match", content = {@Content(schema = @Schema())}),
             @ApiResponse(responseCode = "500", description = "Internal Server Error | Something went wrong", content = {@Content(schema = @Schema(implementation = ErrorResponse.class), mediaType = "application/json")})
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> deleteUser(@PathVariable(name = "id") UUID id) {
-        var user = userRepository.findById(id);
-        if (user.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+    public ResponseEntity<Object> deleteUser(@PathVariable(name = "id") UUID id,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var version = ETags.ifMatchVersion(ifMatch);
+        if (version == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("User was modified");
+        }
+        if (userRepository.deleteById(id, version) == 0) {
+            return version != ETags.ANY_VERSION && userRepository.existsById(id)
+                    ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("User was modified")
+                    : ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
         }
-        userRepository.delete(user.get());
+        tokenRevocationService.revokeTokensOf(id);
         return ResponseEntity.status(HttpStatus.OK).body("User removed successfully");
     }
 
@@ -0,0 +1,17 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one element of a batch request, matched to the input by its position.
+ */
+public record BatchItemResult(int index, int status, UUID id, String error) {
+
+    public static BatchItemResult created(int index, UUID id) {
+        return new BatchItemResult(index, 201, id, null);
+    }
+
+    public static BatchItemResult failed(int index, int status, String error) {
+        return new BatchItemResult(index, status, null, error);
+    }
+}
@@ -0,0 +1,26 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    /**
+     * Builds a page from a result fetched with {@code size + 1} rows: the extra row only tells whether there is a
+     * next page and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, PageCursor> cursorOf) {
+        return ofEncoded(rows, size, row -> cursorOf.apply(row).encode());
+    }
+
+    /**
+     * Same as {@link #of}, for pages whose cursor is not a {@link PageCursor}.
+     */
+    public static <T> CursorPage<T> ofEncoded(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)));
+    }
+}
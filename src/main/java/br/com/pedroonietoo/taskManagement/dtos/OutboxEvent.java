@@ -0,0 +1,14 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * An event as handed to publishers. Delivery is at least once: consumers should skip the ids they have already seen.
+ * Ids increase in the order the changes were written, though a batch may be published before an earlier one when
+ * several instances relay events.
+ */
+public record OutboxEvent(long id, String type, UUID aggregateId, LocalDateTime occurredAt, @JsonRawValue String payload) {
+}
@@ -0,0 +1,35 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Opaque keyset position: the sort timestamp (may be null when only the id is used) and the id of the last row
+ * returned. Clients get it back as a URL-safe string and must not rely on its format.
+ */
+public record PageCursor(LocalDateTime at, UUID id) {
+
+    // Same order as Postgres, which compares uuids as unsigned bytes
+    public static final Comparator<UUID> ID_ORDER = Comparator
+            .comparing((UUID id) -> id.getMostSignificantBits(), Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    public String encode() {
+        String raw = (at == null ? "" : at.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            String at = raw.substring(0, separator);
+            return new PageCursor(at.isEmpty() ? null : LocalDateTime.parse(at), UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
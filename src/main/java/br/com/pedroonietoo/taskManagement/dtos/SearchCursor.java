@@ -0,0 +1,27 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque position in ranked search results: the rank and id of the last row returned.
+ */
+public record SearchCursor(float rank, UUID id) {
+
+    public String encode() {
+        String raw = Float.floatToIntBits(rank) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new SearchCursor(Float.intBitsToFloat(Integer.parseInt(raw.substring(0, separator))),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.persistence.Tuple;
+
+/**
+ * The fields a client asked for with {@code ?fields=a,b,c}, in that order. Field names are the JSON property
+ * names, which are also the entity attribute names.
+ */
+public record SparseFields(List<String> names) {
+
+    /**
+     * Returns {@code null} when no fields were asked for, so the caller returns its full representation.
+     *
+     * @throws IllegalArgumentException for a field that is not in {@code allowed}
+     */
+    public static SparseFields parse(String fields, Set<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        List<String> names = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .toList();
+        for (String name : names) {
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected any of " + allowed.stream().sorted().toList());
+            }
+        }
+        return names.isEmpty() ? null : new SparseFields(names);
+    }
+
+    public Map<String, Object> pick(Tuple row) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String name : names) {
+            values.put(name, row.get(name));
+        }
+        return values;
+    }
+
+    public Map<String, Object> pick(Map<String, Object> row) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String name : names) {
+            values.put(name, row.get(name));
+        }
+        return values;
+    }
+}
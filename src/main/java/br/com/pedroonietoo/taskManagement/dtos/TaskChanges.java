@@ -0,0 +1,13 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import java.util.List;
+import java.util.UUID;
+
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+
+/**
+ * Tasks created or updated and ids of tasks deleted after the requested cursor. {@code nextCursor} is sent back
+ * as {@code since} on the next sync; while {@code hasMore} is true there are further changes to fetch right away.
+ */
+public record TaskChanges(List<TaskModel> changed, List<UUID> deleted, String nextCursor, boolean hasMore) {
+}
@@ -1,12 +1,25 @@
 package br.com.pedroonietoo.taskManagement.dtos;
 
+import br.com.pedroonietoo.taskManagement.models.Priority;
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
-public record TaskDto(@NotBlank String title, @NotBlank String description, @NotNull LocalDateTime startAt,
-        @Future LocalDateTime endAt, @NotBlank String priority, @NotNull UUID userId) {
-}
\ No newline at end of file
+public record TaskDto(@NotBlank @Size(max = TaskModel.MAX_TITLE_LENGTH) String title, @NotBlank String description,
+        @NotNull LocalDateTime startAt, @NotNull @Future LocalDateTime endAt, @NotNull Priority priority,
+        @NotNull UUID userId) {
+
+    /**
+     * The rule the annotations cannot express, checked the same way by create, batch and update once they hold:
+     * null when the task starts no later than it ends, otherwise the error to report.
+     */
+    public String datesError() {
+        return startAt.isAfter(endAt) ? "Start date must be before than end date" : null;
+    }
+}
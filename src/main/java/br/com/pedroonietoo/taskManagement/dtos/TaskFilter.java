@@ -0,0 +1,16 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import br.com.pedroonietoo.taskManagement.models.Priority;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record TaskFilter(UUID userId, Priority priority,
+        @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime startFrom,
+        @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime startTo,
+        @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime endFrom,
+        @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime endTo) {
+}
@@ -0,0 +1,15 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A task reaching its start or end date.
+ */
+public record TaskReminder(UUID taskId, UUID userId, Kind kind, LocalDateTime at) {
+
+    public enum Kind {
+        START,
+        END
+    }
+}
@@ -0,0 +1,11 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+
+/**
+ * A task matching a search, serialized as the task's fields plus its rank (higher is more relevant).
+ */
+public record TaskSearchHit(@JsonUnwrapped TaskModel task, float rank) {
+}
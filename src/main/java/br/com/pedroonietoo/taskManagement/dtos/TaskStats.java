@@ -0,0 +1,13 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import java.util.Map;
+import java.util.UUID;
+
+import br.com.pedroonietoo.taskManagement.models.Priority;
+
+/**
+ * A user's task counts. {@code total} includes the tasks without a priority. Overdue tasks ended before today, and
+ * upcoming ones start between today and the end of the 7th day from now: both are counted by day, not by time.
+ */
+public record TaskStats(UUID userId, long total, Map<Priority, Long> byPriority, long overdue, long upcomingThisWeek) {
+}
@@ -0,0 +1,11 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import java.util.UUID;
+
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+
+/**
+ * A task as updated, and the id of the user it belonged to before the update.
+ */
+public record TaskUpdate(TaskModel task, UUID previousUserId) {
+}
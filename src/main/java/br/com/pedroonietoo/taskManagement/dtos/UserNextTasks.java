@@ -0,0 +1,9 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import java.util.List;
+import java.util.UUID;
+
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+
+public record UserNextTasks(UUID userId, List<TaskModel> tasks) {
+}
@@ -0,0 +1,20 @@
+package br.com.pedroonietoo.taskManagement.dtos;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import br.com.pedroonietoo.taskManagement.models.Role;
+import br.com.pedroonietoo.taskManagement.models.UserModel;
+
+/**
+ * What the user endpoints return: the user columns without the password hash or the UserDetails flags. Also
+ * used as a query projection, so list pages only select these columns.
+ */
+public record UserView(UUID id, String username, String email, Role role, LocalDateTime createdAt,
+        LocalDateTime updatedAt, Long version) {
+
+    public static UserView of(UserModel user) {
+        return new UserView(user.getId(), user.displayName(), user.getEmail(), user.getRole(),
+                user.getCreatedAt(), user.getUpdatedAt(), user.getVersion());
+    }
+}
@@ -0,0 +1,8 @@
+package br.com.pedroonietoo.taskManagement.errors;
+
+public class HashingCapacityExceededException extends RuntimeException {
+
+    public HashingCapacityExceededException() {
+        super("Too many concurrent password operations, try again later");
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.pedroonietoo.taskManagement.errors;
+
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestControllerAdvice
+public class RestExceptionHandler {
+
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<ErrorResponse> handleHashingCapacityExceeded(HashingCapacityExceededException e, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse(HttpStatus.TOO_MANY_REQUESTS, e.getMessage(), request));
+    }
+
+    // signin now fails inside an async result, where the security filters no longer translate it
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<ErrorResponse> handleAuthentication(AuthenticationException e, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(errorResponse(HttpStatus.UNAUTHORIZED, "Invalid email or password.", request));
+    }
+
+    // @Valid request bodies; without this the failure is forwarded to /error, which needs a token
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidBody(MethodArgumentNotValidException e, HttpServletRequest request) {
+        String error = e.getBindingResult().getFieldErrors().stream()
+                .map(fieldError -> fieldError.getField() + " " + fieldError.getDefaultMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(errorResponse(HttpStatus.BAD_REQUEST, error, request));
+    }
+
+    // the row changed between reading it and saving the copy; with If-Match that is a failed precondition
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException e, HttpServletRequest request) {
+        HttpStatus status = request.getHeader(HttpHeaders.IF_MATCH) != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status)
+                .body(errorResponse(status, "The resource was modified by another request.", request));
+    }
+
+    static ErrorResponse errorResponse(HttpStatus status, String error, HttpServletRequest request) {
+        ErrorResponse response = new ErrorResponse();
+        response.setTimestamp(LocalDateTime.now());
+        response.setStatus(status.value());
+        response.setError(error);
+        response.setPath(request.getRequestURI());
+        return response;
+    }
+}
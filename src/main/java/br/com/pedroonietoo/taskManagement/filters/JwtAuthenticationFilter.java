@@ -3,6 +3,7 @@ package br.com.pedroonietoo.taskManagement.filters;
 import java.io.IOException;
 
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -11,9 +12,15 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import br.com.pedroonietoo.taskManagement.models.UserModel;
 import br.com.pedroonietoo.taskManagement.services.JwtService;
+import br.com.pedroonietoo.taskManagement.services.TokenRevocationService;
 import br.com.pedroonietoo.taskManagement.services.UserService;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,6 +35,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserService userService;
+    private final TokenRevocationService tokenRevocationService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${token.claims-principal.enabled}")
+    private boolean claimsPrincipalEnabled;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -36,17 +48,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final Claims claims;
         final String userEmail;
         if (StringUtils.isEmpty(authHeader) || !StringUtils.startsWith(authHeader, "Bearer ")) {
+            countValidation("missing");
             filterChain.doFilter(request, response);
             return;
         }
         jwt = authHeader.substring(7);
         log.debug("JWT - {}", jwt.toString());
-        userEmail = jwtService.extractUserName(jwt);
+        try {
+            // signature and expiration are checked once here, the claims are reused below
+            claims = jwtService.verify(jwt);
+        } catch (ExpiredJwtException e) {
+            log.debug("Expired JWT - {}", e.getMessage());
+            countValidation("expired");
+            filterChain.doFilter(request, response);
+            return;
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected JWT - {}", e.getMessage());
+            countValidation("invalid");
+            filterChain.doFilter(request, response);
+            return;
+        }
+        userEmail = claims.getSubject();
         if (StringUtils.isNotEmpty(userEmail) && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.userDetailsService().loadUserByUsername(userEmail);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            UserDetails userDetails = loadUser(claims);
+            if (userDetails != null && jwtService.isTokenValid(claims, userDetails)) {
                 log.debug("User - {}", userDetails);
                 SecurityContext context = SecurityContextHolder.createEmptyContext();
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
@@ -54,8 +82,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 context.setAuthentication(authToken);
                 SecurityContextHolder.setContext(context);
+                countValidation("ok");
+            } else {
+                countValidation("invalid");
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    private void countValidation(String outcome) {
+        meterRegistry.counter("jwt.validation", "outcome", outcome).increment();
+    }
+
+    private UserDetails loadUser(Claims claims) {
+        UserModel claimsUser = claimsPrincipalEnabled ? jwtService.userFromClaims(claims) : null;
+        if (claimsUser == null) {
+            return userService.userDetailsService().loadUserByUsername(claims.getSubject());
+        }
+        if (tokenRevocationService.isRevoked(claimsUser.getId(), claimsUser.getVersion())) {
+            log.debug("Revoked JWT for user - {}", claimsUser.getId());
+            return null;
+        }
+        return claimsUser;
+    }
 }
\ No newline at end of file
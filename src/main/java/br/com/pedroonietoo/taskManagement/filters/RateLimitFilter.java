@@ -0,0 +1,147 @@
+package br.com.pedroonietoo.taskManagement.filters;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.RequestPath;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.pedroonietoo.taskManagement.config.RateLimitProperties;
+import br.com.pedroonietoo.taskManagement.errors.ErrorResponse;
+import br.com.pedroonietoo.taskManagement.models.Role;
+import br.com.pedroonietoo.taskManagement.models.UserModel;
+import br.com.pedroonietoo.taskManagement.services.RateLimitService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Applies the configured rate limits after the JWT filter, so authenticated requests are counted per user and
+ * anonymous ones per client IP. Requests over the limit get a 429 with Retry-After.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitService rateLimitService;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private List<CompiledRule> rules;
+
+    @PostConstruct
+    public void init() {
+        rules = properties.rules().stream().map(CompiledRule::of).toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        CompiledRule rule = properties.enabled() ? match(request) : null;
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Object subject;
+        CompiledLimit limit;
+        if (authentication != null && authentication.getPrincipal() instanceof UserModel user) {
+            subject = user.getId();
+            limit = rule.limitFor(user.getRole());
+        } else {
+            subject = request.getRemoteAddr();
+            limit = rule.limit();
+        }
+        long waitNanos = rateLimitService.tryAcquire(new BucketKey(rule.name(), subject), limit.intervalNanos(), limit.burstNanos());
+        if (waitNanos > 0) {
+            reject(request, response, rule, waitNanos);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private CompiledRule match(HttpServletRequest request) {
+        PathContainer path = null;
+        for (CompiledRule rule : rules) {
+            if (!rule.methods().isEmpty() && !rule.methods().contains(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                // rules name paths within the application, as controllers do
+                path = RequestPath.parse(request.getRequestURI(), request.getContextPath()).pathWithinApplication();
+            }
+            for (PathPattern pattern : rule.paths()) {
+                if (pattern.matches(path)) {
+                    return rule;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, CompiledRule rule, long waitNanos) throws IOException {
+        meterRegistry.counter("rate.limit.rejected", "rule", rule.name()).increment();
+        ErrorResponse error = new ErrorResponse();
+        error.setTimestamp(LocalDateTime.now());
+        error.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        error.setError("Too many requests, try again later.");
+        error.setPath(request.getRequestURI());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    private record BucketKey(String rule, Object subject) {
+    }
+
+    private record CompiledLimit(long intervalNanos, long burstNanos) {
+
+        static CompiledLimit of(RateLimitProperties.Limit limit) {
+            long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / limit.perSecond());
+            return new CompiledLimit(intervalNanos, limit.capacity() * intervalNanos);
+        }
+    }
+
+    private record CompiledRule(String name, List<PathPattern> paths, Set<String> methods, CompiledLimit limit,
+            Map<Role, CompiledLimit> roles) {
+
+        static CompiledRule of(RateLimitProperties.Rule rule) {
+            Map<Role, CompiledLimit> roles = new EnumMap<>(Role.class);
+            rule.roles().forEach((role, limit) -> roles.put(role, CompiledLimit.of(limit)));
+            return new CompiledRule(rule.name(),
+                    rule.paths().stream().map(PathPatternParser.defaultInstance::parse).toList(),
+                    Set.copyOf(rule.methods()),
+                    CompiledLimit.of(rule.limit()),
+                    roles);
+        }
+
+        CompiledLimit limitFor(Role role) {
+            return role == null ? limit : roles.getOrDefault(role, limit);
+        }
+    }
+}
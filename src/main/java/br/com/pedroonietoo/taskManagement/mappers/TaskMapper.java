@@ -0,0 +1,15 @@
+package br.com.pedroonietoo.taskManagement.mappers;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+import br.com.pedroonietoo.taskManagement.dtos.TaskDto;
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface TaskMapper {
+
+    // TaskModel.setTitle rejects titles over MAX_TITLE_LENGTH; TaskDto is validated first so they never reach it
+    TaskModel toModel(TaskDto taskDto);
+}
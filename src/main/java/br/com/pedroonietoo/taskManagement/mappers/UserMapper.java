@@ -0,0 +1,14 @@
+package br.com.pedroonietoo.taskManagement.mappers;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+import br.com.pedroonietoo.taskManagement.dtos.UserDto;
+import br.com.pedroonietoo.taskManagement.models.UserModel;
+
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface UserMapper {
+
+    UserModel toModel(UserDto userDto);
+}
@@ -0,0 +1,48 @@
+package br.com.pedroonietoo.taskManagement.models;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A task or user change waiting to be published. Written by the triggers in schema.sql, in the transaction of the
+ * change itself, and deleted by {@code OutboxRelay} once published; never written from Java.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Immutable
+@Table(name = "outbox_events")
+public class OutboxEventModel {
+
+    // also the order the events were written in
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    // "task" or "user"
+    String aggregateType;
+
+    UUID aggregateId;
+
+    // e.g. "task.created", "user.deleted"
+    String eventType;
+
+    // the row as the API serializes it (the last state for a deletion), without the password for users
+    @Column(columnDefinition = "jsonb")
+    String payload;
+
+    LocalDateTime createdAt;
+}
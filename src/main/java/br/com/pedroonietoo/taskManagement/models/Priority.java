@@ -0,0 +1,12 @@
+package br.com.pedroonietoo.taskManagement.models;
+
+/**
+ * Declared from most to least urgent and stored as the ordinal, so the database orders by urgency. Never reorder
+ * the values; a new one means renumbering the stored rows.
+ */
+public enum Priority {
+    URGENT,
+    HIGH,
+    MEDIUM,
+    LOW
+}
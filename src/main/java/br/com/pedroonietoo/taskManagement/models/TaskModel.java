@@ -2,30 +2,51 @@ package br.com.pedroonietoo.taskManagement.models;
 
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_created_at_id", columnList = "createdAt, id"),
+        @Index(name = "idx_tasks_user_id_created_at_id", columnList = "userId, createdAt, id"),
+        @Index(name = "idx_tasks_user_id_start_at_id", columnList = "userId, startAt, id"),
+        @Index(name = "idx_tasks_updated_at_id", columnList = "updatedAt, id"),
+        @Index(name = "idx_tasks_user_id_updated_at_id", columnList = "userId, updatedAt, id"),
+        @Index(name = "idx_tasks_user_id_priority_start_at_id", columnList = "userId, priority, startAt, id")
+})
 public class TaskModel implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    public static final int MAX_TITLE_LENGTH = 50;
+
+    // Generated in memory, so inserts need no round-trip for the key and can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
     @Column(length = 50)
     private String title;
     private String description;
     private LocalDateTime startAt;
     private LocalDateTime endAt;
-    private String priority;
+    @Enumerated(EnumType.ORDINAL)
+    @Column(columnDefinition = "smallint")
+    private Priority priority;
     private UUID userId;
 
     @CreationTimestamp
     private LocalDateTime createdAt;
 
+    // Set on insert and on every update; /tasks/changes pages on (updatedAt, id)
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    // Bumped on every update; sent as the ETag and checked when a copy is saved
+    @Version
+    private Long version;
+
     public UUID getId() {
         return id;
     }
@@ -38,9 +59,9 @@ public class TaskModel implements Serializable {
         return title;
     }
 
-    public void setTitle(String title) throws Exception {
-        if (title.length() > 50) {
-            throw new Exception("'Title' field must contain a maximum of 50 characters'");
+    public void setTitle(String title) {
+        if (title.length() > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("'Title' field must contain a maximum of 50 characters'");
         }
 
         this.title = title;
@@ -70,11 +91,11 @@ public class TaskModel implements Serializable {
         this.endAt = endAt;
     }
 
-    public String getPriority() {
+    public Priority getPriority() {
         return priority;
     }
 
-    public void setPriority(String priority) {
+    public void setPriority(Priority priority) {
         this.priority = priority;
     }
 
@@ -85,4 +106,28 @@ public class TaskModel implements Serializable {
     public void setUserId(UUID userId) {
         this.userId = userId;
     }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
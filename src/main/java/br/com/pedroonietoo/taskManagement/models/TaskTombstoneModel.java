@@ -0,0 +1,48 @@
+package br.com.pedroonietoo.taskManagement.models;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Records that a task was deleted, or moved to another user, so clients syncing from /tasks/changes learn that it is
+ * gone from the user's tasks. Written by {@code TaskRepository.deleteById} and {@code updateById} in the same
+ * statement as the write; a task moved back and forth keeps one tombstone per previous owner. Kept for
+ * {@code tasks.changes.tombstone-retention-ms}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(TaskTombstoneModel.Key.class)
+@Table(name = "task_tombstones", indexes = {
+        @Index(name = "idx_task_tombstones_deleted_at_task_id", columnList = "deletedAt, taskId"),
+        @Index(name = "idx_task_tombstones_user_id_deleted_at_task_id", columnList = "userId, deletedAt, taskId")
+})
+public class TaskTombstoneModel {
+
+    @Id
+    UUID taskId;
+
+    @Id
+    UUID userId;
+
+    LocalDateTime deletedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        UUID taskId;
+        UUID userId;
+    }
+}
@@ -17,6 +17,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -24,7 +25,7 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
@@ -33,7 +34,7 @@ import lombok.ToString;
 public class UserModel implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.UUID)
     UUID id;
 
     String username;
@@ -50,11 +51,20 @@ public class UserModel implements UserDetails {
 
     LocalDateTime updatedAt;
 
+    // Bumped on every update; sent as the ETag and checked when a copy is saved
+    @Version
+    Long version;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority(role.name()));
     }
 
+    // the name chosen at signup; getUsername() returns the e-mail for Spring Security
+    public String displayName() {
+        return username;
+    }
+
     @Override
     public String getUsername() {
         // our "username" for security is the email field
@@ -0,0 +1,30 @@
+package br.com.pedroonietoo.taskManagement.repositories;
+
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+final class Columns {
+
+    private Columns() {
+    }
+
+    /**
+     * Selects the given attributes, each aliased by its name, plus the keyset attributes the caller needs to build
+     * the next cursor.
+     */
+    static List<Selection<?>> select(Root<?> root, Collection<String> attributes, String... keys) {
+        Set<String> names = new LinkedHashSet<>(attributes);
+        names.addAll(List.of(keys));
+        List<Selection<?>> selections = new ArrayList<>(names.size());
+        for (String name : names) {
+            selections.add(root.get(name).alias(name));
+        }
+        return selections;
+    }
+}
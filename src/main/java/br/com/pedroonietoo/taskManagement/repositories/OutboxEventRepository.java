@@ -0,0 +1,23 @@
+package br.com.pedroonietoo.taskManagement.repositories;
+
+import br.com.pedroonietoo.taskManagement.models.OutboxEventModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Transactional(readOnly = true)
+public interface OutboxEventRepository extends JpaRepository<OutboxEventModel, Long> {
+
+    /**
+     * Deletes and returns the {@code limit} oldest events no other transaction has claimed, oldest first. Call it in
+     * the transaction that publishes them: the events come back if it rolls back, and other instances skip them
+     * until it ends.
+     */
+    // The ids are locked once in a materialized CTE: as an IN (...) subquery, the locking select may be run again
+    // while the delete rechecks rows other instances changed, and claim more than the limit
+    @Transactional
+    @Query(nativeQuery = true, value = "WITH locked AS MATERIALIZED (SELECT id FROM outbox_events ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED), claimed AS (DELETE FROM outbox_events e USING locked l WHERE e.id = l.id RETURNING e.*) SELECT * FROM claimed ORDER BY id")
+    List<OutboxEventModel> claim(int limit);
+}
@@ -1,12 +1,105 @@
 package br.com.pedroonietoo.taskManagement.repositories;
 
 import br.com.pedroonietoo.taskManagement.models.TaskModel;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface TaskRepository extends JpaRepository<TaskModel, UUID> {
+/**
+ * Lookups by id go through the "tasks" cache. Cached instances are shared between requests and must never be
+ * modified; writes replace or evict the entry.
+ *
+ * <p>Queries run in read-only transactions, which may be served by a read replica; writes declare their own.
+ */
+@Transactional(readOnly = true)
+public interface TaskRepository extends JpaRepository<TaskModel, UUID>, TaskRepositoryCustom {
     List<TaskModel> findByUserId(UUID userId);
     TaskModel findByIdAndUserId(UUID id, UUID userId);
+
+    // The range expression must stay identical to the one in the GiST indexes created by schema.sql
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(nativeQuery = true, value = "SELECT * FROM tasks t WHERE tsrange(t.start_at, t.end_at, '[]') && tsrange(:from, :to, '[)') ORDER BY t.start_at, t.id")
+    Stream<TaskModel> streamOverlapping(LocalDateTime from, LocalDateTime to);
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(nativeQuery = true, value = "SELECT * FROM tasks t WHERE t.user_id = :userId AND tsrange(t.start_at, t.end_at, '[]') && tsrange(:from, :to, '[)') ORDER BY t.start_at, t.id")
+    Stream<TaskModel> streamOverlappingForUser(UUID userId, LocalDateTime from, LocalDateTime to);
+
+    // Tasks starting or ending in [from, to): the overlap goes through the GiST index, the tasks spanning the whole
+    // range are dropped afterwards
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(nativeQuery = true, value = "SELECT * FROM tasks t WHERE tsrange(t.start_at, t.end_at, '[]') && tsrange(:from, :to, '[)') AND (t.start_at >= :from OR t.end_at < :to)")
+    Stream<TaskModel> streamStartingOrEndingIn(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Deletes a task and records its tombstone in a single statement, returning the id of the user it belonged to;
+     * empty when there is no task with this id belonging to {@code ownerId} ({@code null} for any user), or when
+     * {@code version} is not negative and differs from the stored one.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = "tasks", key = "#p0")
+    @Query(nativeQuery = true, value = "WITH deleted AS (DELETE FROM tasks WHERE id = :id AND (CAST(:ownerId AS uuid) IS NULL OR user_id = :ownerId) AND (:version < 0 OR version = :version) RETURNING id, user_id) INSERT INTO task_tombstones (task_id, user_id, deleted_at) SELECT id, user_id, :deletedAt FROM deleted ON CONFLICT (task_id, user_id) DO UPDATE SET deleted_at = excluded.deleted_at RETURNING user_id")
+    Optional<UUID> deleteById(UUID id, UUID ownerId, long version, LocalDateTime deletedAt);
+
+    boolean existsByIdAndUserId(UUID id, UUID userId);
+
+    /** Drops the tombstones of tasks deleted, or moved away, before {@code before}, returning how many. */
+    @Transactional
+    @Modifying
+    @Query("delete from TaskTombstoneModel t where t.deletedAt < :before")
+    int deleteTombstonesBefore(LocalDateTime before);
+
+    /**
+     * Rebuilds the user's task counts (see {@link #findStats}) from the tasks table, returning whether they had
+     * drifted.
+     */
+    @Transactional
+    @Query(nativeQuery = true, value = "SELECT reconcile_task_counts(:userId)")
+    boolean reconcileStats(UUID userId);
+
+    /** Ids of the users who may have task counts, in id order, strictly after {@code after}. */
+    @Query(nativeQuery = true, value = "SELECT id FROM users WHERE id > :after UNION SELECT user_id FROM task_counts_by_priority WHERE user_id > :after UNION SELECT user_id FROM task_counts_by_day WHERE user_id > :after ORDER BY 1 LIMIT :limit")
+    List<UUID> findStatsUserIds(UUID after, int limit);
+
+    @Override
+    @Cacheable(cacheNames = "tasks", unless = "#result == null")
+    Optional<TaskModel> findById(UUID id);
+
+    @Override
+    @Transactional
+    @CachePut(cacheNames = "tasks", key = "#result.id")
+    <S extends TaskModel> S save(S task);
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = "tasks", key = "#p0.id")
+    void delete(TaskModel task);
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = "tasks", key = "#p0")
+    void deleteById(UUID id);
 }
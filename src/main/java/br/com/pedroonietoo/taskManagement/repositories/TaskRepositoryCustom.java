@@ -0,0 +1,94 @@
+package br.com.pedroonietoo.taskManagement.repositories;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.pedroonietoo.taskManagement.dtos.PageCursor;
+import br.com.pedroonietoo.taskManagement.dtos.SearchCursor;
+import br.com.pedroonietoo.taskManagement.dtos.TaskFilter;
+import br.com.pedroonietoo.taskManagement.dtos.TaskSearchHit;
+import br.com.pedroonietoo.taskManagement.dtos.TaskStats;
+import br.com.pedroonietoo.taskManagement.dtos.TaskUpdate;
+import br.com.pedroonietoo.taskManagement.dtos.UserNextTasks;
+import br.com.pedroonietoo.taskManagement.models.Priority;
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+import br.com.pedroonietoo.taskManagement.models.TaskTombstoneModel;
+
+import jakarta.persistence.Tuple;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Transactional(readOnly = true)
+public interface TaskRepositoryCustom {
+
+    /**
+     * Returns at most {@code limit} tasks matching the filter, ordered by (createdAt, id) and starting strictly
+     * after the given cursor ({@code null} for the first page).
+     */
+    List<TaskModel> findPage(TaskFilter filter, PageCursor after, int limit);
+
+    /**
+     * Same as {@link #findPage}, selecting only the given attributes plus createdAt and id for the cursor.
+     */
+    List<Tuple> findPageColumns(TaskFilter filter, PageCursor after, List<String> columns, int limit);
+
+    /**
+     * Returns at most {@code limit} tasks of one user ordered by (startAt, id), ascending or descending, starting
+     * strictly after the given cursor ({@code null} for the first page).
+     */
+    List<TaskModel> findUserPage(UUID userId, PageCursor after, boolean descending, int limit);
+
+    /**
+     * Returns at most {@code limit} tasks ordered by (updatedAt, id), changed strictly after the given cursor
+     * ({@code null} for all) and no later than {@code until}. Scoped to one user unless {@code userId} is null.
+     */
+    List<TaskModel> findChangedSince(UUID userId, PageCursor after, LocalDateTime until, int limit);
+
+    /**
+     * Same as {@link #findChangedSince} for deleted tasks, ordered by (deletedAt, taskId).
+     */
+    List<TaskTombstoneModel> findDeletedSince(UUID userId, PageCursor after, LocalDateTime until, int limit);
+
+    /**
+     * Returns the {@code limit} most urgent tasks of one user starting at or after {@code from}, ordered by
+     * (priority, startAt, id).
+     */
+    List<TaskModel> findNext(UUID userId, LocalDateTime from, int limit);
+
+    /**
+     * {@link #findNext} for each of {@code userIds} in one statement, in the order given; users without upcoming
+     * tasks get an empty list.
+     */
+    List<UserNextTasks> findNextByUser(List<UUID> userIds, LocalDateTime from, int limit);
+
+    /**
+     * Returns at most {@code limit} tasks of one user whose title or description match the web-search style
+     * {@code query}, most relevant first, then by id, starting strictly after the given cursor ({@code null} for the
+     * first page).
+     */
+    List<TaskSearchHit> search(UUID userId, String query, SearchCursor after, int limit);
+
+    /**
+     * Updates a task and returns the new row in a single statement, along with the user it belonged to before; empty
+     * when there is no task with this id belonging to {@code ownerId} ({@code null} for any user), or when
+     * {@code version} is not negative and differs from the stored one. Puts the new row in the "tasks" cache.
+     */
+    @Transactional
+    Optional<TaskUpdate> updateById(UUID id, UUID ownerId, long version, String title, String description, LocalDateTime startAt,
+                                    LocalDateTime endAt, Priority priority, UUID userId, LocalDateTime updatedAt);
+
+    /**
+     * Returns the user's task counts from the summary tables the triggers in schema.sql keep up to date, reading a
+     * few rows whatever the number of tasks.
+     */
+    TaskStats findStats(UUID userId);
+
+    /**
+     * Streams every task matching the filter, ordered by (createdAt, id), from a server-side cursor. Must be
+     * consumed inside a read-only transaction and closed afterwards.
+     */
+    Stream<TaskModel> streamAll(TaskFilter filter);
+}
@@ -0,0 +1,360 @@
+package br.com.pedroonietoo.taskManagement.repositories;
+
+import br.com.pedroonietoo.taskManagement.dtos.PageCursor;
+import br.com.pedroonietoo.taskManagement.dtos.SearchCursor;
+import br.com.pedroonietoo.taskManagement.dtos.TaskFilter;
+import br.com.pedroonietoo.taskManagement.dtos.TaskSearchHit;
+import br.com.pedroonietoo.taskManagement.dtos.TaskStats;
+import br.com.pedroonietoo.taskManagement.dtos.TaskUpdate;
+import br.com.pedroonietoo.taskManagement.dtos.UserNextTasks;
+import br.com.pedroonietoo.taskManagement.models.Priority;
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+import br.com.pedroonietoo.taskManagement.models.TaskTombstoneModel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String NEXT_SQL = nextSql(":userId");
+
+    // Every user's next tasks at once: the same ranges, once per user
+    private static final String NEXT_BY_USER_SQL = "SELECT n.* FROM users u CROSS JOIN LATERAL (" + nextSql("u.id")
+            + ") n WHERE u.id IN (:userIds) ORDER BY n.user_id, n.priority, n.start_at, n.id";
+
+    // One statement, so the counts come from the same snapshot: the day counts' single row, joined to one row per
+    // priority. Day rows of passed days but the '-infinity' one only hold ends, see schema.sql
+    private static final String STATS_SQL = """
+            SELECT p.priority, p.tasks, d.overdue, d.upcoming FROM (
+                SELECT coalesce(sum(ending) FILTER (WHERE day < current_date), 0) AS overdue,
+                       coalesce(sum(starting) FILTER (WHERE day >= current_date), 0) AS upcoming
+                FROM task_counts_by_day WHERE user_id = :userId AND day < current_date + 7) d
+            LEFT JOIN task_counts_by_priority p ON p.user_id = :userId AND p.tasks <> 0""";
+
+    // The row is locked before the update reads it, so the previous owner is the one the update replaced. A task moved
+    // to another user leaves a tombstone for the previous one, a microsecond older than the update so that the
+    // unscoped change feed orders the removal before the new version. The priority is bound as its ordinal, native
+    // queries do not convert enums
+    private static final String UPDATE_SQL = """
+            WITH previous AS (
+                SELECT id, user_id FROM tasks WHERE id = :id AND (CAST(:ownerId AS uuid) IS NULL OR user_id = :ownerId)
+                FOR UPDATE),
+            updated AS (
+                UPDATE tasks t SET title = :title, description = :description, start_at = :startAt, end_at = :endAt,
+                    priority = :priority, user_id = :userId, updated_at = :updatedAt, version = t.version + 1
+                FROM previous p WHERE t.id = p.id AND (:version < 0 OR t.version = :version)
+                RETURNING t.*, p.user_id AS previous_user_id),
+            moved AS (
+                INSERT INTO task_tombstones (task_id, user_id, deleted_at)
+                SELECT u.id, u.previous_user_id, u.updated_at - interval '1 microsecond' FROM updated u
+                WHERE u.previous_user_id <> u.user_id
+                ON CONFLICT (task_id, user_id) DO UPDATE SET deleted_at = excluded.deleted_at)
+            SELECT {u.*}, u.previous_user_id FROM updated u""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Override
+    public List<TaskModel> findPage(TaskFilter filter, PageCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskModel> query = cb.createQuery(TaskModel.class);
+        Root<TaskModel> task = query.from(TaskModel.class);
+
+        query.select(task)
+                .where(pagePredicates(cb, task, filter, after))
+                .orderBy(cb.asc(task.get("createdAt")), cb.asc(task.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Tuple> findPageColumns(TaskFilter filter, PageCursor after, List<String> columns, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<TaskModel> task = query.from(TaskModel.class);
+
+        query.multiselect(Columns.select(task, columns, "createdAt", "id"))
+                .where(pagePredicates(cb, task, filter, after))
+                .orderBy(cb.asc(task.get("createdAt")), cb.asc(task.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<TaskModel> findUserPage(UUID userId, PageCursor after, boolean descending, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskModel> query = cb.createQuery(TaskModel.class);
+        Root<TaskModel> task = query.from(TaskModel.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(task.get("userId"), userId));
+        if (after != null) {
+            // seeks on the (userId, startAt, id) index in either direction
+            Path<LocalDateTime> startAt = task.get("startAt");
+            Path<UUID> id = task.get("id");
+            predicates.add(descending
+                    ? cb.or(cb.lessThan(startAt, after.at()), cb.and(cb.equal(startAt, after.at()), cb.lessThan(id, after.id())))
+                    : cb.or(cb.greaterThan(startAt, after.at()), cb.and(cb.equal(startAt, after.at()), cb.greaterThan(id, after.id()))));
+        }
+
+        query.select(task)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(descending
+                        ? List.of(cb.desc(task.get("startAt")), cb.desc(task.get("id")))
+                        : List.of(cb.asc(task.get("startAt")), cb.asc(task.get("id"))));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<TaskModel> findChangedSince(UUID userId, PageCursor after, LocalDateTime until, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskModel> query = cb.createQuery(TaskModel.class);
+        Root<TaskModel> task = query.from(TaskModel.class);
+
+        query.select(task)
+                .where(changePredicates(cb, task.get("userId"), task.get("updatedAt"), task.get("id"), userId, after, until))
+                .orderBy(cb.asc(task.get("updatedAt")), cb.asc(task.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<TaskTombstoneModel> findDeletedSince(UUID userId, PageCursor after, LocalDateTime until, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskTombstoneModel> query = cb.createQuery(TaskTombstoneModel.class);
+        Root<TaskTombstoneModel> tombstone = query.from(TaskTombstoneModel.class);
+
+        query.select(tombstone)
+                .where(changePredicates(cb, tombstone.get("userId"), tombstone.get("deletedAt"), tombstone.get("taskId"), userId, after, until))
+                .orderBy(cb.asc(tombstone.get("deletedAt")), cb.asc(tombstone.get("taskId")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<TaskModel> findNext(UUID userId, LocalDateTime from, int limit) {
+        return entityManager.createNativeQuery(NEXT_SQL, TaskModel.class)
+                .setParameter("userId", userId)
+                .setParameter("from", from)
+                .setParameter("limit", limit)
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<UserNextTasks> findNextByUser(List<UUID> userIds, LocalDateTime from, int limit) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        List<TaskModel> next = entityManager.createNativeQuery(NEXT_BY_USER_SQL, TaskModel.class)
+                .setParameter("userIds", userIds)
+                .setParameter("from", from)
+                .setParameter("limit", limit)
+                .getResultList();
+        Map<UUID, List<TaskModel>> byUser = next.stream()
+                .collect(Collectors.groupingBy(TaskModel::getUserId, Collectors.toList()));
+        return userIds.stream()
+                .map(userId -> new UserNextTasks(userId, byUser.getOrDefault(userId, List.of())))
+                .toList();
+    }
+
+    // One range of idx_tasks_user_id_priority_start_at_id per priority, so past tasks are never scanned; at most
+    // `limit` rows each, of which the database keeps the `limit` most urgent
+    private static String nextSql(String userId) {
+        return Arrays.stream(Priority.values())
+                .map(priority -> "(SELECT * FROM tasks WHERE user_id = " + userId + " AND priority = " + priority.ordinal()
+                        + " AND start_at >= :from ORDER BY start_at, id LIMIT :limit)")
+                .collect(Collectors.joining(" UNION ALL ", "SELECT * FROM (", ") next ORDER BY priority, start_at, id LIMIT :limit"));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<TaskSearchHit> search(UUID userId, String query, SearchCursor after, int limit) {
+        // search_vector and its GIN index are created by schema.sql; JPQL has no full-text operators. Every match is
+        // ranked before sorting, which stays cheap only because the search is limited to one user's tasks
+        StringBuilder sql = new StringBuilder("""
+                SELECT {t.*}, t.rank FROM (
+                    SELECT tasks.*, ts_rank_cd(search_vector, query) AS rank
+                    FROM tasks, websearch_to_tsquery('simple', :query) query
+                    WHERE user_id = :userId AND search_vector @@ query) t""");
+        if (after != null) {
+            sql.append(" WHERE t.rank < :rank OR (t.rank = :rank AND t.id > :id)");
+        }
+        sql.append(" ORDER BY t.rank DESC, t.id");
+
+        NativeQuery<Object[]> nativeQuery = entityManager.createNativeQuery(sql.toString())
+                .unwrap(NativeQuery.class)
+                .addEntity("t", TaskModel.class)
+                .addScalar("rank", StandardBasicTypes.FLOAT);
+        nativeQuery.setParameter("query", query);
+        nativeQuery.setParameter("userId", userId);
+        if (after != null) {
+            nativeQuery.setParameter("rank", after.rank());
+            nativeQuery.setParameter("id", after.id());
+        }
+        return nativeQuery.setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(row -> new TaskSearchHit((TaskModel) row[0], (Float) row[1]))
+                .toList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<TaskUpdate> updateById(UUID id, UUID ownerId, long version, String title, String description, LocalDateTime startAt,
+                                           LocalDateTime endAt, Priority priority, UUID userId, LocalDateTime updatedAt) {
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(UPDATE_SQL)
+                .unwrap(NativeQuery.class)
+                .addEntity("u", TaskModel.class)
+                .addScalar("previous_user_id", StandardBasicTypes.UUID);
+        query.setParameter("id", id);
+        query.setParameter("ownerId", ownerId, StandardBasicTypes.UUID);
+        query.setParameter("version", version);
+        query.setParameter("title", title);
+        query.setParameter("description", description);
+        query.setParameter("startAt", startAt);
+        query.setParameter("endAt", endAt);
+        query.setParameter("priority", priority.ordinal());
+        query.setParameter("userId", userId);
+        query.setParameter("updatedAt", updatedAt);
+        return query.getResultList().stream().findFirst().map(row -> {
+            var task = (TaskModel) row[0];
+            // what @CachePut does for the derived repository methods, the result here is not a task
+            cacheManager.getCache("tasks").put(id, task);
+            return new TaskUpdate(task, (UUID) row[1]);
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TaskStats findStats(UUID userId) {
+        List<Object[]> rows = entityManager.createNativeQuery(STATS_SQL)
+                .setParameter("userId", userId)
+                .getResultList();
+
+        Priority[] priorities = Priority.values();
+        Map<Priority, Long> byPriority = new EnumMap<>(Priority.class);
+        long total = 0;
+        for (Object[] row : rows) {
+            if (row[0] == null) {
+                continue;
+            }
+            int ordinal = ((Number) row[0]).intValue();
+            long tasks = ((Number) row[1]).longValue();
+            total += tasks;
+            // -1 counts the tasks without a priority
+            if (ordinal >= 0) {
+                byPriority.put(priorities[ordinal], tasks);
+            }
+        }
+        Object[] first = rows.get(0);
+        return new TaskStats(userId, total, byPriority, ((Number) first[2]).longValue(), ((Number) first[3]).longValue());
+    }
+
+    @Override
+    public Stream<TaskModel> streamAll(TaskFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskModel> query = cb.createQuery(TaskModel.class);
+        Root<TaskModel> task = query.from(TaskModel.class);
+
+        query.select(task)
+                .where(filterPredicates(cb, task, filter).toArray(Predicate[]::new))
+                .orderBy(cb.asc(task.get("createdAt")), cb.asc(task.get("id")));
+
+        // Without a fetch size the Postgres driver buffers the whole result set before returning the first row
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .setHint(AvailableHints.HINT_CACHEABLE, false)
+                .getResultStream();
+    }
+
+    private Predicate[] pagePredicates(CriteriaBuilder cb, Root<TaskModel> task, TaskFilter filter, PageCursor after) {
+        List<Predicate> predicates = filterPredicates(cb, task, filter);
+        if (after != null) {
+            // (createdAt, id) > (:at, :id), written out so it maps onto the composite index
+            predicates.add(cb.or(
+                    cb.greaterThan(task.<LocalDateTime>get("createdAt"), after.at()),
+                    cb.and(cb.equal(task.get("createdAt"), after.at()), cb.greaterThan(task.<UUID>get("id"), after.id()))));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    // (changedAt, id) > (:at, :id) and changedAt <= :until, seeking on the (userId, changedAt, id) or (changedAt, id) index
+    private Predicate[] changePredicates(CriteriaBuilder cb, Path<UUID> userIdPath, Path<LocalDateTime> changedAt, Path<UUID> id,
+                                         UUID userId, PageCursor after, LocalDateTime until) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (userId != null) {
+            predicates.add(cb.equal(userIdPath, userId));
+        }
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.greaterThan(changedAt, after.at()),
+                    cb.and(cb.equal(changedAt, after.at()), cb.greaterThan(id, after.id()))));
+        }
+        predicates.add(cb.lessThanOrEqualTo(changedAt, until));
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    // Only the filters actually sent end up in the SQL, so each combination gets its own plan
+    private List<Predicate> filterPredicates(CriteriaBuilder cb, Root<TaskModel> task, TaskFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.userId() != null) {
+            predicates.add(cb.equal(task.get("userId"), filter.userId()));
+        }
+        if (filter.priority() != null) {
+            predicates.add(cb.equal(task.get("priority"), filter.priority()));
+        }
+        if (filter.startFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(task.get("startAt"), filter.startFrom()));
+        }
+        if (filter.startTo() != null) {
+            predicates.add(cb.lessThan(task.get("startAt"), filter.startTo()));
+        }
+        if (filter.endFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(task.get("endAt"), filter.endFrom()));
+        }
+        if (filter.endTo() != null) {
+            predicates.add(cb.lessThan(task.get("endAt"), filter.endTo()));
+        }
+        return predicates;
+    }
+}
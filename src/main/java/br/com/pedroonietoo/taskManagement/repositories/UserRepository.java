@@ -1,10 +1,92 @@
 package br.com.pedroonietoo.taskManagement.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+import br.com.pedroonietoo.taskManagement.dtos.UserView;
 import br.com.pedroonietoo.taskManagement.models.UserModel;
+import jakarta.persistence.QueryHint;
+
 import java.util.UUID;
 
-public interface UserRepository extends JpaRepository<UserModel, UUID> {
+/**
+ * Lookups by id go through the "users" cache. Cached instances are shared between requests and must never be
+ * modified; writes replace or evict the entry.
+ *
+ * <p>Queries run in read-only transactions, which may be served by a read replica; writes declare their own.
+ */
+@Transactional(readOnly = true)
+public interface UserRepository extends JpaRepository<UserModel, UUID>, UserRepositoryCustom {
     Optional<UserModel> findByEmail(String email);
+
+    @Override
+    @Cacheable(cacheNames = "users", unless = "#result == null")
+    Optional<UserModel> findById(UUID id);
+
+    @Override
+    @Transactional
+    @CachePut(cacheNames = "users", key = "#result.id")
+    <S extends UserModel> S save(S user);
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = "users", key = "#p0.id")
+    void delete(UserModel user);
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = "users", key = "#p0")
+    void deleteById(UUID id);
+
+    /**
+     * Updates a user and returns the new row in a single statement; empty when there is no user with this id, or
+     * when {@code version} is not negative and differs from the stored one.
+     */
+    @Transactional
+    @CachePut(cacheNames = "users", key = "#p0", unless = "#result == null")
+    @Query(nativeQuery = true, value = "UPDATE users SET username = :username, email = :email, password = :password, updated_at = :updatedAt, version = version + 1 WHERE id = :id AND (:version < 0 OR version = :version) RETURNING *")
+    Optional<UserModel> updateById(UUID id, long version, String username, String email, String password, LocalDateTime updatedAt);
+
+    /**
+     * Returns the number of users deleted: 0 when there is no user with this id, or when {@code version} is not
+     * negative and differs from the stored one.
+     */
+    @Transactional
+    @Modifying
+    @CacheEvict(cacheNames = "users", key = "#p0")
+    @Query("delete from UserModel u where u.id = :id and (:version < 0 or u.version = :version)")
+    int deleteById(UUID id, long version);
+
+    // read on the primary, so a token is not accepted by a replica that has not seen the user's last change yet
+    @Transactional
+    @Query("select u.version from UserModel u where u.id = :id")
+    Optional<Long> findVersionById(UUID id);
+
+    // Projected to UserView, so the password hash is neither selected nor serialized
+    List<UserView> findAllByOrderByIdAsc(Pageable limit);
+    List<UserView> findByIdGreaterThanOrderByIdAsc(UUID id, Pageable limit);
+
+    @Query("select u.id from UserModel u where u.id in :ids")
+    List<UUID> findExistingIds(Collection<UUID> ids);
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select u from UserModel u order by u.id")
+    Stream<UserModel> streamAll();
 }
@@ -0,0 +1,18 @@
+package br.com.pedroonietoo.taskManagement.repositories;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.Tuple;
+
+import java.util.List;
+import java.util.UUID;
+
+@Transactional(readOnly = true)
+public interface UserRepositoryCustom {
+
+    /**
+     * Returns at most {@code limit} users ordered by id, after the given id ({@code null} for the first page),
+     * selecting only the given attributes and the id.
+     */
+    List<Tuple> findPageColumns(UUID after, List<String> columns, int limit);
+}
@@ -0,0 +1,34 @@
+package br.com.pedroonietoo.taskManagement.repositories;
+
+import br.com.pedroonietoo.taskManagement.models.UserModel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.List;
+import java.util.UUID;
+
+class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findPageColumns(UUID after, List<String> columns, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<UserModel> user = query.from(UserModel.class);
+
+        query.multiselect(Columns.select(user, columns, "id"))
+                .where(after == null ? new Predicate[0] : new Predicate[]{cb.greaterThan(user.get("id"), after)})
+                .orderBy(cb.asc(user.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -1,7 +1,8 @@
 package br.com.pedroonietoo.taskManagement.services;
 
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -12,40 +13,62 @@ import br.com.pedroonietoo.taskManagement.models.Role;
 import br.com.pedroonietoo.taskManagement.models.UserModel;
 import br.com.pedroonietoo.taskManagement.repositories.UserRepository;
 
-import lombok.RequiredArgsConstructor;
-
+/**
+ * Only the password hash runs on the hashing pool; the user is looked up on the request thread and saved, along with
+ * the token signed, once the hash is done.
+ */
 @Service
-@RequiredArgsConstructor
 public class AuthenticationService {
 
     private final UserRepository userRepository;
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
-
-    public JwtAuthenticationResponse signup(SignUpRequest request) {
-        var user = UserModel
-                .builder()
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .role(Role.ROLE_USER)
-                .build();
-
-        user = userService.save(user);
-        var jwt = jwtService.generateToken(user);
-        return JwtAuthenticationResponse.builder().token(jwt).build();
+    private final HashingExecutor hashingExecutor;
+    // checked when the e-mail is unknown, so that takes as long to reject as a wrong password
+    private final String unknownUserPassword;
+
+    public AuthenticationService(UserRepository userRepository, UserService userService, PasswordEncoder passwordEncoder,
+                                 JwtService jwtService, HashingExecutor hashingExecutor) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.jwtService = jwtService;
+        this.hashingExecutor = hashingExecutor;
+        this.unknownUserPassword = passwordEncoder.encode("unknownUserPassword");
     }
 
+    public CompletableFuture<JwtAuthenticationResponse> signup(SignUpRequest request) {
+        return hashingExecutor.encode(request.getPassword()).thenApply(passwordHashed -> {
+            var user = UserModel
+                    .builder()
+                    .username(request.getUsername())
+                    .email(request.getEmail())
+                    .password(passwordHashed)
+                    .role(Role.ROLE_USER)
+                    .build();
+            return token(userService.save(user));
+        });
+    }
 
-    public JwtAuthenticationResponse signin(SignInRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
-        var user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid email or password."));
-        var jwt = jwtService.generateToken(user);
-        return JwtAuthenticationResponse.builder().token(jwt).build();
+    public CompletableFuture<JwtAuthenticationResponse> signin(SignInRequest request) {
+        var user = userRepository.findByEmail(request.getEmail());
+        var storedPassword = user.map(UserModel::getPassword).orElse(unknownUserPassword);
+        return hashingExecutor.matches(request.getPassword(), storedPassword).thenCompose(matches -> {
+            if (!matches || user.isEmpty()) {
+                throw new BadCredentialsException("Invalid email or password.");
+            }
+            if (!hashingExecutor.upgradeEncoding(storedPassword)) {
+                return CompletableFuture.completedFuture(token(user.get()));
+            }
+            // a hash made with an outdated cost is stored again at the current one; the token carries the version
+            // this save produced, rather than one read back from a replica that may not have it yet
+            return hashingExecutor.encode(request.getPassword()).thenApply(passwordHashed -> {
+                user.get().setPassword(passwordHashed);
+                return token(userService.save(user.get()));
+            });
+        });
     }
 
-}
\ No newline at end of file
+    private JwtAuthenticationResponse token(UserModel user) {
+        return JwtAuthenticationResponse.builder().token(jwtService.generateToken(user)).build();
+    }
+}
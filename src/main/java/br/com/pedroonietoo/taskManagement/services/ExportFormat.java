@@ -0,0 +1,25 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import org.springframework.http.MediaType;
+
+public enum ExportFormat {
+    JSON("application/json", "json"),
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,170 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import br.com.pedroonietoo.taskManagement.dtos.TaskFilter;
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+import br.com.pedroonietoo.taskManagement.models.UserModel;
+import br.com.pedroonietoo.taskManagement.repositories.TaskRepository;
+import br.com.pedroonietoo.taskManagement.repositories.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes tasks and users row by row from a database cursor, detaching each entity once it is written, so memory
+ * use does not depend on how many rows are exported.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private static final String[] TASK_COLUMNS = {"id", "title", "description", "startAt", "endAt", "priority", "userId", "createdAt"};
+    private static final String[] USER_COLUMNS = {"id", "username", "email", "role", "createdAt", "updatedAt"};
+
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public void exportTasks(TaskFilter filter, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<TaskModel> tasks = taskRepository.streamAll(filter)) {
+            write(tasks, format, TASK_COLUMNS, ExportService::taskRow, out);
+        }
+    }
+
+    /**
+     * Writes the tasks whose [startAt, endAt] overlaps [from, to), ordered by start date, optionally only those of
+     * one user.
+     */
+    @Transactional(readOnly = true)
+    public void exportTaskWindow(LocalDateTime from, LocalDateTime to, UUID userId, ExportFormat format, OutputStream out)
+            throws IOException {
+        try (Stream<TaskModel> tasks = userId == null
+                ? taskRepository.streamOverlapping(from, to)
+                : taskRepository.streamOverlappingForUser(userId, from, to)) {
+            write(tasks, format, TASK_COLUMNS, ExportService::taskRow, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUsers(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<UserModel> users = userRepository.streamAll()) {
+            write(users, format, USER_COLUMNS, ExportService::userRow, out);
+        }
+    }
+
+    private <T> void write(Stream<T> rows, ExportFormat format, String[] columns, Function<T, Map<String, Object>> toRow,
+                           OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ObjectWriter json = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (format == ExportFormat.CSV) {
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+        } else if (format == ExportFormat.JSON) {
+            writer.write('[');
+        }
+        boolean[] first = {true};
+        try {
+            rows.forEach(entity -> {
+                Map<String, Object> row = toRow.apply(entity);
+                entityManager.detach(entity);
+                try {
+                    switch (format) {
+                        case JSON -> {
+                            if (!first[0]) {
+                                writer.write(',');
+                            }
+                            json.writeValue(writer, row);
+                        }
+                        case NDJSON -> {
+                            json.writeValue(writer, row);
+                            writer.write('\n');
+                        }
+                        case CSV -> {
+                            writeCsvLine(writer, columns, row);
+                            writer.write('\n');
+                        }
+                    }
+                    first[0] = false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (format == ExportFormat.JSON) {
+            writer.write(']');
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer writer, String[] columns, Map<String, Object> row) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = row.get(columns[i]);
+            if (value != null) {
+                writer.write(csvEscape(value.toString()));
+            }
+        }
+    }
+
+    private static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static Map<String, Object> taskRow(TaskModel task) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", task.getId());
+        row.put("title", task.getTitle());
+        row.put("description", task.getDescription());
+        row.put("startAt", task.getStartAt());
+        row.put("endAt", task.getEndAt());
+        row.put("priority", task.getPriority());
+        row.put("userId", task.getUserId());
+        row.put("createdAt", task.getCreatedAt());
+        return row;
+    }
+
+    // The password hash is deliberately left out of exports
+    private static Map<String, Object> userRow(UserModel user) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", user.getId());
+        // getUsername() is the e-mail, which Spring Security logs in with
+        row.put("username", user.displayName());
+        row.put("email", user.getEmail());
+        row.put("role", user.getRole());
+        row.put("createdAt", user.getCreatedAt());
+        row.put("updatedAt", user.getUpdatedAt());
+        return row;
+    }
+}
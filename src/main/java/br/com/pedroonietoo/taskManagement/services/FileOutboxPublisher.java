@@ -0,0 +1,55 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.pedroonietoo.taskManagement.dtos.OutboxEvent;
+
+/**
+ * Appends the events to {@code outbox.file.path} as NDJSON, forced to disk before the batch counts as published. A
+ * crash in between leaves the batch in the file and the outbox both, to be appended again.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.publisher", havingValue = "file")
+public class FileOutboxPublisher implements OutboxPublisher {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileOutboxPublisher(ObjectMapper objectMapper, @Value("${outbox.file.path}") Path path) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        var lines = new ByteArrayOutputStream();
+        try {
+            for (var event : events) {
+                lines.write(objectMapper.writeValueAsBytes(event));
+                lines.write('\n');
+            }
+            try (var file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                var buffer = ByteBuffer.wrap(lines.toByteArray());
+                while (buffer.hasRemaining()) {
+                    file.write(buffer);
+                }
+                file.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
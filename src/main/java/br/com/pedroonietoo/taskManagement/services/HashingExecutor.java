@@ -0,0 +1,91 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import br.com.pedroonietoo.taskManagement.errors.HashingCapacityExceededException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Hashes and checks passwords off the request threads, on the bounded passwordHashingExecutor. Only the hash itself
+ * runs there: the returned futures complete on passwordFollowUpExecutor, so whatever the caller chains on them
+ * (saving the user, signing a token) waits on the database without holding a hashing thread. The follow-up runs with
+ * the caller's security context and request, which the replica routing uses to tell who wrote.
+ */
+@Service
+public class HashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor followUpExecutor;
+    private final PasswordEncoder passwordEncoder;
+    private final Timer hashingTimer;
+    private final Counter rejections;
+
+    public HashingExecutor(ThreadPoolExecutor passwordHashingExecutor, ThreadPoolExecutor passwordFollowUpExecutor,
+                           PasswordEncoder passwordEncoder, MeterRegistry meterRegistry) {
+        this.executor = passwordHashingExecutor;
+        this.followUpExecutor = passwordFollowUpExecutor;
+        this.passwordEncoder = passwordEncoder;
+        this.hashingTimer = Timer.builder("password.hashing")
+                .description("Time spent hashing or checking a password on the hashing pool")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejections = Counter.builder("password.hashing.rejected")
+                .description("Hashing requests refused because the pool and its queue were full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws HashingCapacityExceededException when the pool is saturated
+     */
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * @throws HashingCapacityExceededException when the pool is saturated
+     */
+    public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> hash) {
+        try {
+            return CompletableFuture.supplyAsync(() -> hashingTimer.record(hash), executor)
+                    .thenApplyAsync(Function.identity(), asCaller());
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new HashingCapacityExceededException();
+        }
+    }
+
+    private Executor asCaller() {
+        var requestAttributes = RequestContextHolder.getRequestAttributes();
+        Executor withSecurityContext = new DelegatingSecurityContextExecutor(followUpExecutor, SecurityContextHolder.getContext());
+        return command -> withSecurityContext.execute(() -> {
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            try {
+                command.run();
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.pedroonietoo.taskManagement.dtos.OutboxEvent;
+
+/**
+ * POSTs each batch as a JSON array to {@code outbox.http.url}; anything but a 2xx answer fails the batch.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.publisher", havingValue = "http")
+public class HttpOutboxPublisher implements OutboxPublisher {
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper objectMapper;
+    private final URI url;
+
+    public HttpOutboxPublisher(ObjectMapper objectMapper, @Value("${outbox.http.url}") URI url) {
+        this.objectMapper = objectMapper;
+        this.url = url;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(events);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        var request = HttpRequest.newBuilder(url)
+                .timeout(Duration.ofSeconds(10))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing events", e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Event endpoint answered " + response.statusCode());
+        }
+    }
+}
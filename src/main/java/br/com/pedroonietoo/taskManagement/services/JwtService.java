@@ -1,44 +1,146 @@
 package br.com.pedroonietoo.taskManagement.services;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import br.com.pedroonietoo.taskManagement.models.Role;
+import br.com.pedroonietoo.taskManagement.models.UserModel;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 @Service
 public class JwtService {
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
+    static final String VERSION_CLAIM = "ver";
+
     @Value("${token.secret.key}")
     String jwtSecretKey;
 
     @Value("${token.expirationms}")
     Long jwtExpirationMs;
 
+    @Value("${token.cache.max-size}")
+    long verifiedTokenCacheSize;
+
+    private Key signingKey;
+    private JwtParser jwtParser;
+    private Cache<ByteBuffer, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecretKey));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = verifiedTokenCacheSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheSize)
+                .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+                        // an entry never outlives the token it was verified from
+                        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     public String extractUserName(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof UserModel user && user.getId() != null && user.getRole() != null
+                && user.getVersion() != null) {
+            claims.put(USER_ID_CLAIM, user.getId().toString());
+            claims.put(ROLE_CLAIM, user.getRole().name());
+            claims.put(VERSION_CLAIM, user.getVersion());
+        }
+        return generateToken(claims, userDetails);
+    }
+
+    /**
+     * Rebuilds the principal carried by verified claims, or returns null for tokens issued without the user id, role
+     * and version claims. The result is not attached to the persistence context and has no password.
+     */
+    public UserModel userFromClaims(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        Number version = claims.get(VERSION_CLAIM, Number.class);
+        if (userId == null || role == null || version == null) {
+            return null;
+        }
+        return UserModel.builder()
+                .id(UUID.fromString(userId))
+                .email(claims.getSubject())
+                .role(Role.valueOf(role))
+                .version(version.longValue())
+                .build();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(verify(token), userDetails);
+    }
+
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
+    }
+
+    /**
+     * Checks the signature and expiration of the token and returns its claims. A token already verified by this
+     * instance is answered from a bounded cache keyed by its SHA-256 digest, without parsing it again.
+     *
+     * @throws JwtException if the token is malformed, badly signed or expired
+     */
+    public Claims verify(String token) {
+        if (verifiedTokens == null) {
+            return jwtParser.parseClaimsJws(token).getBody();
+        }
+        ByteBuffer key = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims == null) {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(key, claims);
+        }
+        return claims;
     }
 
     private <T> T extractClaim(String token, Function<Claims, T> claimsResolvers) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verify(token);
         return claimsResolvers.apply(claims);
     }
 
@@ -49,30 +151,16 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import br.com.pedroonietoo.taskManagement.dtos.OutboxEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.publisher", havingValue = "log", matchIfMissing = true)
+public class LoggingOutboxPublisher implements OutboxPublisher {
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (var event : events) {
+            log.info("Event {} {} {}: {}", event.id(), event.type(), event.aggregateId(), event.payload());
+        }
+    }
+}
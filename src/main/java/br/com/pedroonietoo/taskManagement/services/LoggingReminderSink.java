@@ -0,0 +1,17 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import org.springframework.stereotype.Component;
+
+import br.com.pedroonietoo.taskManagement.dtos.TaskReminder;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class LoggingReminderSink implements ReminderSink {
+
+    @Override
+    public void send(TaskReminder reminder) {
+        log.info("Task {} of user {}: {} at {}", reminder.taskId(), reminder.userId(), reminder.kind(), reminder.at());
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.util.List;
+
+import br.com.pedroonietoo.taskManagement.dtos.OutboxEvent;
+
+/**
+ * Delivers the events relayed by {@link OutboxRelay}; {@code outbox.publisher} picks the implementation. Must only
+ * return once the events are safely delivered, and throw otherwise: the batch is then kept and retried as a whole.
+ */
+public interface OutboxPublisher {
+
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,127 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.pedroonietoo.taskManagement.dtos.OutboxEvent;
+import br.com.pedroonietoo.taskManagement.repositories.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes the events the outbox triggers record, in batches of up to {@code outbox.batch-size}, through the
+ * {@link OutboxPublisher}. A batch is claimed, published and deleted in one transaction, so a failed one is retried
+ * after {@code outbox.retry-ms} and a published one is never lost; it may be published twice if the commit fails.
+ * Every instance of the application relays: claimed rows are skipped by the others rather than waited on.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxPublisher publisher;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${outbox.enabled}")
+    private boolean enabled;
+
+    @Value("${outbox.batch-size}")
+    private int batchSize;
+
+    @Value("${outbox.poll-ms}")
+    private long pollMillis;
+
+    @Value("${outbox.retry-ms}")
+    private long retryMillis;
+
+    private ScheduledExecutorService thread;
+    private TransactionTemplate transaction;
+    private Counter published;
+    private Counter failures;
+    private Timer lag;
+    private Timer publishTime;
+
+    // only used on the relay thread
+    private long retryAt;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        transaction = new TransactionTemplate(transactionManager);
+        published = meterRegistry.counter("outbox.published");
+        failures = meterRegistry.counter("outbox.failures");
+        // from the start of the transaction that made the change to the publication
+        lag = Timer.builder("outbox.lag").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        publishTime = meterRegistry.timer("outbox.publish");
+        thread = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("outbox-relay-"));
+        thread.scheduleWithFixedDelay(this::poll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (thread != null) {
+            thread.shutdownNow();
+        }
+    }
+
+    private void poll() {
+        if (System.currentTimeMillis() < retryAt) {
+            return;
+        }
+        try {
+            // a full batch means there is more waiting, keep going until the outbox is drained
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (RuntimeException e) {
+            // an exception would cancel the periodic task
+            failures.increment();
+            retryAt = System.currentTimeMillis() + retryMillis;
+            log.warn("Publishing outbox events failed, retrying in {} ms: {}", retryMillis, e.toString());
+        }
+    }
+
+    private int relayBatch() {
+        long started = System.nanoTime();
+        var events = transaction.execute(status -> {
+            var batch = outboxEventRepository.claim(batchSize).stream()
+                    .map(event -> new OutboxEvent(event.getId(), event.getEventType(), event.getAggregateId(),
+                            event.getCreatedAt(), event.getPayload()))
+                    .toList();
+            if (!batch.isEmpty()) {
+                publisher.publish(batch);
+            }
+            return batch;
+        });
+        if (events.isEmpty()) {
+            return 0;
+        }
+        publishTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        published.increment(events.size());
+        var now = LocalDateTime.now();
+        for (var event : events) {
+            lag.record(Duration.between(event.occurredAt(), now));
+        }
+        return events.size();
+    }
+}
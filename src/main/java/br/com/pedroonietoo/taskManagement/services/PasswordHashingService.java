@@ -0,0 +1,75 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The only place passwords are hashed and checked. Hashes use the BCrypt modular crypt format, which records the
+ * algorithm version and cost next to the salt ({@code $2a$12$...}), so hashes made at an older cost keep verifying
+ * and {@link #upgradeEncoding(String)} can tell when one should be rehashed.
+ */
+@Slf4j
+public class PasswordHashingService implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final int cost;
+    private final BCryptPasswordEncoder encoder;
+
+    public PasswordHashingService(int cost) {
+        this.cost = cost;
+        this.encoder = new BCryptPasswordEncoder(cost);
+    }
+
+    /**
+     * Picks the highest cost between {@code minCost} and {@code maxCost} whose hash still takes no longer than
+     * {@code targetMs} on this host. Each extra cost point doubles the work, so one timed hash is enough.
+     */
+    public static PasswordHashingService calibrated(int minCost, int maxCost, long targetMs) {
+        BCrypt.hashpw("calibration", BCrypt.gensalt(minCost));
+        long fastestNs = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", BCrypt.gensalt(minCost));
+            fastestNs = Math.min(fastestNs, System.nanoTime() - start);
+        }
+        double fastestMs = Math.max(fastestNs / 1_000_000.0, 0.001);
+        int extra = (int) Math.floor(Math.log(targetMs / fastestMs) / Math.log(2));
+        int cost = Math.max(minCost, Math.min(maxCost, minCost + extra));
+        log.info("Password hashing cost calibrated to {} (cost {} took {} ms, target {} ms)", cost, minCost,
+                String.format("%.1f", fastestMs), targetMs);
+        return new PasswordHashingService(cost);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return encoder.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * True when the hash was made with a lower cost than the current one (or is not BCrypt at all).
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) < cost;
+    }
+}
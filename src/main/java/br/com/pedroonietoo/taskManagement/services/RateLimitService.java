@@ -0,0 +1,58 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.com.pedroonietoo.taskManagement.config.RateLimitProperties;
+
+/**
+ * In-memory token buckets, one per key. Each bucket is a single timestamp updated with compare-and-set (the
+ * generic cell rate algorithm), so taking a token never locks; the map itself is Caffeine's, bounded in size and
+ * dropping idle buckets.
+ *
+ * <p>Buckets are per instance: with several instances behind a balancer each one enforces the limit on its own.
+ */
+@Service
+public class RateLimitService {
+
+    private final Cache<Object, AtomicLong> buckets;
+
+    public RateLimitService(RateLimitProperties properties) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxKeys())
+                .expireAfterAccess(properties.idleExpiry())
+                // eviction is cheap, doing it inline avoids waking a pool thread on the request path
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of {@code key}, which gains one every {@code intervalNanos} and holds at most
+     * {@code burstNanos / intervalNanos}. Returns 0 when a token was taken, otherwise the nanoseconds until one is
+     * available.
+     */
+    public long tryAcquire(Object key, long intervalNanos, long burstNanos) {
+        return tryAcquire(key, intervalNanos, burstNanos, System.nanoTime());
+    }
+
+    // the clock is passed in so the tests can move it
+    long tryAcquire(Object key, long intervalNanos, long burstNanos, long now) {
+        // the bucket state is the time at which it would be empty again ("theoretical arrival time")
+        AtomicLong emptyAt = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = emptyAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long allowedAt = next - burstNanos;
+            if (allowedAt > now) {
+                return allowedAt - now;
+            }
+            if (emptyAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
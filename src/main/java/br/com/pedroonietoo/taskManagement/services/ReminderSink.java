@@ -0,0 +1,12 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import br.com.pedroonietoo.taskManagement.dtos.TaskReminder;
+
+/**
+ * Receives the reminders fired by {@link TaskReminderService}, each bean of this type gets all of them. Called on
+ * the reminder thread, so implementations must hand slow work off instead of blocking.
+ */
+public interface ReminderSink {
+
+    void send(TaskReminder reminder);
+}
@@ -0,0 +1,110 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.pedroonietoo.taskManagement.dtos.BatchItemResult;
+import br.com.pedroonietoo.taskManagement.dtos.TaskDto;
+import br.com.pedroonietoo.taskManagement.mappers.TaskMapper;
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+import br.com.pedroonietoo.taskManagement.repositories.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Creates many tasks in one transaction: every item is validated in memory, user ids are checked with a single
+ * query and the rows are written as JDBC batches.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskBatchService {
+
+    private final UserRepository userRepository;
+    private final TaskMapper taskMapper;
+    private final Validator validator;
+    private final TaskReminderService taskReminderService;
+    private final TaskStreamService taskStreamService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int jdbcBatchSize;
+
+    @Transactional
+    public List<BatchItemResult> createAll(List<TaskDto> taskDtos) {
+        var results = new ArrayList<BatchItemResult>(taskDtos.size());
+        var tasks = new ArrayList<TaskModel>(taskDtos.size());
+        var currentDate = LocalDateTime.now();
+
+        for (int i = 0; i < taskDtos.size(); i++) {
+            String error = validate(taskDtos.get(i), currentDate);
+            if (error != null) {
+                results.add(BatchItemResult.failed(i, HttpStatus.BAD_REQUEST.value(), error));
+                tasks.add(null);
+                continue;
+            }
+            tasks.add(taskMapper.toModel(taskDtos.get(i)));
+            results.add(null);
+        }
+
+        Set<UUID> userIds = tasks.stream()
+                .filter(task -> task != null)
+                .map(TaskModel::getUserId)
+                .collect(Collectors.toSet());
+        Set<UUID> existingUserIds = userIds.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingIds(userIds));
+
+        int pending = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            var task = tasks.get(i);
+            if (task == null) {
+                continue;
+            }
+            if (!existingUserIds.contains(task.getUserId())) {
+                results.set(i, BatchItemResult.failed(i, HttpStatus.NOT_FOUND.value(), "User id doesn't exists"));
+                continue;
+            }
+            entityManager.persist(task);
+            taskReminderService.taskSaved(task);
+            taskStreamService.taskCreated(task);
+            results.set(i, BatchItemResult.created(i, task.getId()));
+            // keep the persistence context small; each flush goes out as one JDBC batch
+            if (++pending % jdbcBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        return results;
+    }
+
+    private String validate(TaskDto taskDto, LocalDateTime currentDate) {
+        if (taskDto == null) {
+            return "Task must not be null";
+        }
+        Set<ConstraintViolation<TaskDto>> violations = validator.validate(taskDto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (currentDate.isAfter(taskDto.startAt()) || currentDate.isAfter(taskDto.endAt())) {
+            return "Start/end date must be bigger than current date";
+        }
+        return taskDto.datesError();
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.pedroonietoo.taskManagement.dtos.PageCursor;
+import br.com.pedroonietoo.taskManagement.dtos.TaskChanges;
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+import br.com.pedroonietoo.taskManagement.models.TaskTombstoneModel;
+import br.com.pedroonietoo.taskManagement.repositories.TaskRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Change feed for task sync: changes are read back in (timestamp, id) order across tasks and the tombstones
+ * left by deletions. Tombstones are pruned once older than {@code tasks.changes.tombstone-retention-ms}, so a cursor
+ * older than that may have missed deletions and its client has to sync again from scratch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskChangeService {
+
+    private static final Comparator<PageCursor> CHANGE_ORDER = Comparator.comparing(PageCursor::at)
+            .thenComparing(PageCursor::id, PageCursor.ID_ORDER);
+
+    private final TaskRepository taskRepository;
+
+    // Timestamps are taken before commit, so the newest changes are held back until slower transactions have committed
+    @Value("${tasks.changes.settle-ms}")
+    private long settleMillis;
+
+    @Value("${tasks.changes.tombstone-retention-ms}")
+    private long tombstoneRetentionMillis;
+
+    @Value("${tasks.changes.prune-interval-ms}")
+    private long pruneIntervalMillis;
+
+    private ScheduledExecutorService thread;
+
+    @PostConstruct
+    void start() {
+        thread = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("task-tombstones-"));
+        thread.scheduleWithFixedDelay(this::pruneTombstones, 0, pruneIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        thread.shutdownNow();
+    }
+
+    /** Whether tombstones the cursor has not seen yet may have been pruned already. */
+    public boolean isExpired(PageCursor since) {
+        return since != null && since.at().isBefore(LocalDateTime.now().minusNanos(tombstoneRetentionMillis * 1_000_000));
+    }
+
+    /**
+     * Returns at most {@code size} changes after {@code since} ({@code null} for a full sync), for one user or for
+     * everyone when {@code userId} is null.
+     */
+    @Transactional(readOnly = true)
+    public TaskChanges changesSince(UUID userId, PageCursor since, int size) {
+        var until = LocalDateTime.now().minusNanos(settleMillis * 1_000_000);
+        List<TaskModel> changed = taskRepository.findChangedSince(userId, since, until, size + 1);
+        List<TaskTombstoneModel> deleted = taskRepository.findDeletedSince(userId, since, until, size + 1);
+
+        // both lists are sorted, take the first `size` entries of their merge
+        int c = 0;
+        int d = 0;
+        PageCursor last = since;
+        while (c + d < size && (c < changed.size() || d < deleted.size())) {
+            if (d == deleted.size() || (c < changed.size() && CHANGE_ORDER.compare(cursorOf(changed.get(c)), cursorOf(deleted.get(d))) < 0)) {
+                last = cursorOf(changed.get(c++));
+            } else {
+                last = cursorOf(deleted.get(d++));
+            }
+        }
+        boolean hasMore = c < changed.size() || d < deleted.size();
+        return new TaskChanges(
+                changed.subList(0, c),
+                deleted.subList(0, d).stream().map(TaskTombstoneModel::getTaskId).toList(),
+                last == null ? null : last.encode(),
+                hasMore);
+    }
+
+    private void pruneTombstones() {
+        try {
+            // every instance prunes, deleting rows that are already gone does no harm
+            int pruned = taskRepository.deleteTombstonesBefore(LocalDateTime.now().minusNanos(tombstoneRetentionMillis * 1_000_000));
+            if (pruned > 0) {
+                log.info("Pruned {} task tombstones", pruned);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Pruning task tombstones failed: {}", e.toString());
+        }
+    }
+
+    private static PageCursor cursorOf(TaskModel task) {
+        return new PageCursor(task.getUpdatedAt(), task.getId());
+    }
+
+    private static PageCursor cursorOf(TaskTombstoneModel tombstone) {
+        return new PageCursor(tombstone.getDeletedAt(), tombstone.getTaskId());
+    }
+}
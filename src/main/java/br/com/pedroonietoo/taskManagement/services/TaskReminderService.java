@@ -0,0 +1,399 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.pedroonietoo.taskManagement.dtos.PageCursor;
+import br.com.pedroonietoo.taskManagement.dtos.TaskReminder;
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+import br.com.pedroonietoo.taskManagement.models.TaskTombstoneModel;
+import br.com.pedroonietoo.taskManagement.repositories.TaskRepository;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends a {@link TaskReminder} to every {@link ReminderSink} when a task starts and when it ends. Only the
+ * reminders due within the next {@code reminders.horizon-ms} are held, on a {@link TimingWheel}; the window is
+ * loaded from the database as it slides forward, and tasks written in the meantime are applied as they commit.
+ * The wheel belongs to a single thread, other threads only queue updates for it.
+ *
+ * <p>A single instance of the application sends reminders: the one holding a Postgres advisory lock, on a connection
+ * it keeps for as long as it leads. Another instance takes the lock over when that connection is lost. Tasks written
+ * through the other instances reach the leader by polling the changes feed every {@code reminders.sync-ms}, so a
+ * reminder due within that delay (plus {@code tasks.changes.settle-ms}) of such a write may use the previous dates.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskReminderService {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final int SYNC_PAGE_SIZE = 500;
+
+    private final TaskRepository taskRepository;
+    private final List<ReminderSink> sinks;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    // the lock must be taken on the primary, whatever the routing
+    private final HikariDataSource primaryDataSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${reminders.enabled}")
+    private boolean enabled;
+
+    @Value("${reminders.tick-ms}")
+    private long tickMillis;
+
+    @Value("${reminders.horizon-ms}")
+    private long horizonMillis;
+
+    @Value("${reminders.sync-ms}")
+    private long syncMillis;
+
+    @Value("${tasks.changes.settle-ms}")
+    private long settleMillis;
+
+    private final Queue<Runnable> updates = new ConcurrentLinkedQueue<>();
+
+    // only used on the reminder thread
+    private final Map<UUID, TaskTimer> timers = new HashMap<>();
+    private TimingWheel wheel;
+    private long loadedUntil;
+    // held while this instance leads
+    private Connection lockConnection;
+    private long nextSyncAt;
+    private PageCursor changedAfter;
+    private PageCursor deletedAfter;
+
+    private ScheduledExecutorService thread;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate primaryTransaction;
+    private Counter startsSent;
+    private Counter endsSent;
+
+    private static final class TaskTimer extends TimingWheel.Timer {
+        private final UUID taskId;
+        private final UUID userId;
+        // epoch millis, Long.MAX_VALUE when the task has no end date
+        private final long startAt;
+        private final long endAt;
+        private TaskReminder.Kind kind;
+
+        private TaskTimer(UUID taskId, UUID userId, long startAt, long endAt) {
+            this.taskId = taskId;
+            this.userId = userId;
+            this.startAt = startAt;
+            this.endAt = endAt;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        if (horizonMillis / tickMillis >= TimingWheel.RANGE / 2) {
+            throw new IllegalStateException("reminders.horizon-ms is too far ahead for reminders.tick-ms");
+        }
+        long now = System.currentTimeMillis();
+        wheel = new TimingWheel(now / tickMillis);
+        loadedUntil = now;
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        primaryTransaction = new TransactionTemplate(transactionManager);
+        startsSent = meterRegistry.counter("reminders.sent", "kind", "start");
+        endsSent = meterRegistry.counter("reminders.sent", "kind", "end");
+        Gauge.builder("reminders.pending", wheel, TimingWheel::size).register(meterRegistry);
+
+        thread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var reminderThread = new Thread(runnable, "task-reminders");
+            reminderThread.setDaemon(true);
+            return reminderThread;
+        });
+        thread.scheduleAtFixedRate(this::tick, 0, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (thread != null) {
+            thread.shutdownNow();
+            // the lock connection belongs to the reminder thread
+            thread.awaitTermination(5, TimeUnit.SECONDS);
+            releaseLock();
+        }
+    }
+
+    /** Reschedules the task's reminders once the current transaction, if any, has committed. */
+    public void taskSaved(TaskModel task) {
+        if (!enabled) {
+            return;
+        }
+        var timer = timerFor(task);
+        afterCommit(() -> schedule(timer, loadedUntil));
+    }
+
+    /** Drops the task's reminders once the current transaction, if any, has committed. */
+    public void taskDeleted(UUID taskId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> cancel(taskId));
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            updates.add(update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                updates.add(update);
+            }
+        });
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            boolean leading = lead(now);
+            Runnable update;
+            while ((update = updates.poll()) != null) {
+                if (leading) {
+                    update.run();
+                }
+            }
+            if (leading && now >= nextSyncAt) {
+                sync(now);
+            }
+            if (leading && now + horizonMillis / 2 >= loadedUntil) {
+                load(Math.max(loadedUntil, now), now + horizonMillis);
+            }
+            // followers keep the empty wheel turning, so it is on time when they take over
+            wheel.advanceTo(now / tickMillis, timer -> fire((TaskTimer) timer));
+        } catch (RuntimeException e) {
+            // an exception would cancel the periodic task
+            log.error("Reminder tick failed", e);
+        }
+    }
+
+    /** Returns whether this instance holds the reminder lock, trying to take it every sync period when it does not. */
+    private boolean lead(long now) {
+        if (lockConnection != null) {
+            try {
+                if (lockConnection.isValid(1)) {
+                    return true;
+                }
+            } catch (SQLException e) {
+                // same as not valid
+            }
+            log.warn("Lost the reminder lock, another instance takes over");
+            releaseLock();
+            timers.values().forEach(wheel::cancel);
+            timers.clear();
+            nextSyncAt = now + syncMillis;
+            return false;
+        }
+        if (now < nextSyncAt) {
+            return false;
+        }
+        nextSyncAt = now + syncMillis;
+        Connection connection = null;
+        try {
+            connection = primaryDataSource.getConnection();
+            try (var statement = connection.createStatement();
+                 var result = statement.executeQuery("SELECT pg_try_advisory_lock(hashtextextended('task-reminders', 0))")) {
+                result.next();
+                if (!result.getBoolean(1)) {
+                    connection.close();
+                    return false;
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Taking the reminder lock failed: {}", e.toString());
+            closeQuietly(connection);
+            return false;
+        }
+        lockConnection = connection;
+        // the first load covers the tasks as they are now, the changes feed whatever is written from here on
+        loadedUntil = now;
+        var since = new PageCursor(localDateTime(now - settleMillis), new UUID(0, 0));
+        changedAfter = since;
+        deletedAfter = since;
+        log.info("This instance now sends the reminders");
+        return true;
+    }
+
+    private void releaseLock() {
+        if (lockConnection == null) {
+            return;
+        }
+        // the connection goes back to the pool, which would keep the session's lock
+        try (var statement = lockConnection.createStatement()) {
+            statement.execute("SELECT pg_advisory_unlock_all()");
+        } catch (SQLException e) {
+            // a broken connection has lost its lock already
+        }
+        closeQuietly(lockConnection);
+        lockConnection = null;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Closing a connection failed: {}", e.toString());
+        }
+    }
+
+    /** Applies the tasks written or deleted through any instance since the last sync. */
+    private void sync(long now) {
+        nextSyncAt = now + syncMillis;
+        var until = localDateTime(now - settleMillis);
+        try {
+            // read from the primary: a lagging replica would let the cursor skip changes
+            primaryTransaction.executeWithoutResult(status -> {
+                // tombstones first: a task moved to another user has one, and is then scheduled again as changed
+                List<TaskTombstoneModel> deleted;
+                do {
+                    deleted = taskRepository.findDeletedSince(null, deletedAfter, until, SYNC_PAGE_SIZE);
+                    for (var tombstone : deleted) {
+                        cancel(tombstone.getTaskId());
+                        deletedAfter = new PageCursor(tombstone.getDeletedAt(), tombstone.getTaskId());
+                    }
+                } while (deleted.size() == SYNC_PAGE_SIZE);
+                List<TaskModel> changed;
+                do {
+                    changed = taskRepository.findChangedSince(null, changedAfter, until, SYNC_PAGE_SIZE);
+                    for (var task : changed) {
+                        schedule(timerFor(task), loadedUntil);
+                        changedAfter = new PageCursor(task.getUpdatedAt(), task.getId());
+                    }
+                } while (changed.size() == SYNC_PAGE_SIZE);
+            });
+        } catch (RuntimeException e) {
+            // picked up from the same cursors on the next sync
+            log.warn("Syncing reminders failed: {}", e.toString());
+        }
+    }
+
+    private void load(long from, long to) {
+        try {
+            int loaded = readOnlyTransaction.execute(status -> {
+                try (Stream<TaskModel> tasks = taskRepository.streamStartingOrEndingIn(localDateTime(from), localDateTime(to))) {
+                    int[] count = {0};
+                    tasks.forEach(task -> {
+                        schedule(timerFor(task), to);
+                        entityManager.detach(task);
+                        count[0]++;
+                    });
+                    return count[0];
+                }
+            });
+            loadedUntil = to;
+            log.debug("Loaded {} tasks with reminders until {}", loaded, localDateTime(to));
+        } catch (RuntimeException e) {
+            // retried on the next tick, reminders already on the wheel still fire
+            log.warn("Loading reminders failed: {}", e.toString());
+        }
+    }
+
+    /** Puts the timer on the wheel for the task's next reminder before {@code until}, replacing any previous one. */
+    private void schedule(TaskTimer timer, long until) {
+        cancel(timer.taskId);
+        if (isPending(timer.startAt, until)) {
+            timer.kind = TaskReminder.Kind.START;
+            wheel.schedule(timer, deadline(timer.startAt));
+        } else if (isPending(timer.endAt, until)) {
+            timer.kind = TaskReminder.Kind.END;
+            wheel.schedule(timer, deadline(timer.endAt));
+        } else {
+            return;
+        }
+        timers.put(timer.taskId, timer);
+    }
+
+    private void cancel(UUID taskId) {
+        var timer = timers.remove(taskId);
+        if (timer != null) {
+            wheel.cancel(timer);
+        }
+    }
+
+    private void fire(TaskTimer timer) {
+        boolean started = timer.kind == TaskReminder.Kind.START;
+        var reminder = new TaskReminder(timer.taskId, timer.userId, timer.kind,
+                localDateTime(started ? timer.startAt : timer.endAt));
+        (started ? startsSent : endsSent).increment();
+        for (var sink : sinks) {
+            try {
+                sink.send(reminder);
+            } catch (RuntimeException e) {
+                log.warn("Reminder sink {} failed: {}", sink.getClass().getSimpleName(), e.toString());
+            }
+        }
+        if (started && timer.endAt >= timer.startAt && timer.endAt < loadedUntil) {
+            timer.kind = TaskReminder.Kind.END;
+            wheel.schedule(timer, deadline(timer.endAt));
+        } else {
+            timers.remove(timer.taskId);
+        }
+    }
+
+    private static TaskTimer timerFor(TaskModel task) {
+        long endAt = task.getEndAt() == null ? Long.MAX_VALUE : epochMillis(task.getEndAt());
+        return new TaskTimer(task.getId(), task.getUserId(), epochMillis(task.getStartAt()), endAt);
+    }
+
+    // not fired yet, and not left for a later load
+    private boolean isPending(long at, long until) {
+        return at < until && deadline(at) >= wheel.nextTick();
+    }
+
+    private long deadline(long epochMillis) {
+        return -Math.floorDiv(-epochMillis, tickMillis);
+    }
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime localDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZONE);
+    }
+}
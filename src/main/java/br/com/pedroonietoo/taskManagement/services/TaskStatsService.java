@@ -0,0 +1,90 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import br.com.pedroonietoo.taskManagement.repositories.TaskRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rebuilds every user's task counts (GET /tasks/stats) from the tasks table, on startup, which fills them in for the
+ * tasks written before the counting triggers existed, then every {@code tasks.stats.reconcile-interval-ms}. The
+ * triggers keep the counts exact on their own; the rebuild corrects them should they ever drift, for instance after
+ * the triggers were disabled for a bulk load, and folds the rows of passed days together.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskStatsService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final TaskRepository taskRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${tasks.stats.reconcile-interval-ms}")
+    private long reconcileIntervalMillis;
+
+    private ScheduledExecutorService thread;
+    private Counter drifted;
+    private Timer reconcileTime;
+
+    @PostConstruct
+    void start() {
+        drifted = meterRegistry.counter("tasks.stats.drifted");
+        reconcileTime = meterRegistry.timer("tasks.stats.reconcile");
+        thread = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("task-stats-"));
+        thread.scheduleWithFixedDelay(this::reconcile, 0, reconcileIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        thread.shutdownNow();
+    }
+
+    /** Rebuilds the counts of every user, one transaction per user, returning how many had drifted. */
+    public int reconcile() {
+        long started = System.nanoTime();
+        int users = 0;
+        int drift = 0;
+        try {
+            var after = new UUID(0, 0);
+            while (!Thread.currentThread().isInterrupted()) {
+                var userIds = taskRepository.findStatsUserIds(after, BATCH_SIZE);
+                for (var userId : userIds) {
+                    if (taskRepository.reconcileStats(userId)) {
+                        drift++;
+                        drifted.increment();
+                        // every user on the first run after the triggers were created, which is not worth a line each
+                        log.debug("Task counts of user {} had drifted and were rebuilt", userId);
+                    }
+                }
+                users += userIds.size();
+                if (userIds.size() < BATCH_SIZE) {
+                    break;
+                }
+                after = userIds.get(userIds.size() - 1);
+            }
+        } catch (RuntimeException e) {
+            // an exception would cancel the periodic task, the next run starts over
+            log.error("Task counts reconciliation failed", e);
+        } finally {
+            reconcileTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        log.info("Reconciled the task counts of {} users, {} had drifted", users, drift);
+        return drift;
+    }
+}
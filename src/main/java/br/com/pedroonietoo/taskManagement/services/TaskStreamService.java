@@ -0,0 +1,319 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Pushes task changes to their owner's server-sent event streams. Publishing never waits on a client: each
+ * subscriber has a small buffer holding the latest event per task, and a few writer threads send them out, one
+ * subscriber at a time. A subscriber more than {@code tasks.stream.buffer-size} tasks behind gets a single
+ * {@code resync} event instead and should reload its tasks. Idle streams hold no thread, only their connection.
+ *
+ * <p>A write to a client that stops reading blocks once its TCP buffers are full. A subscriber whose write takes
+ * longer than {@code tasks.stream.send-timeout-ms} is dropped, and the pool gets an extra writer until the blocked
+ * one returns (the servlet container fails the write after its connection timeout), so other streams keep flowing.
+ *
+ * <p>Subscribers only receive the changes made through this instance of the application: with several instances
+ * behind a load balancer, clients must stick to the instance they write through, or reload on reconnect.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskStreamService {
+
+    static final String CREATED = "created";
+    static final String UPDATED = "updated";
+    static final String DELETED = "deleted";
+    static final String RESYNC = "resync";
+
+    // coalesces with itself, so a stuck subscriber never holds more than one
+    private static final UUID HEARTBEAT_KEY = new UUID(0, 0);
+    private static final Event HEARTBEAT = new Event(null, null);
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${tasks.stream.buffer-size}")
+    private int bufferSize;
+
+    @Value("${tasks.stream.timeout-ms}")
+    private long timeoutMillis;
+
+    @Value("${tasks.stream.heartbeat-ms}")
+    private long heartbeatMillis;
+
+    @Value("${tasks.stream.writer-threads}")
+    private int writerThreads;
+
+    @Value("${tasks.stream.send-timeout-ms}")
+    private long sendTimeoutMillis;
+
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private ThreadPoolExecutor writers;
+    private ScheduledExecutorService heartbeats;
+    private Counter resyncs;
+    private Counter sendTimeouts;
+
+    private record Event(String name, String json) {
+    }
+
+    @PostConstruct
+    void start() {
+        writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("task-stream-"));
+        heartbeats = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("task-stream-heartbeat-"));
+        heartbeats.scheduleAtFixedRate(() -> subscribers.values().forEach(userSubscribers ->
+                        userSubscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT_KEY, HEARTBEAT))),
+                heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        long checkMillis = Math.max(1, sendTimeoutMillis / 4);
+        heartbeats.scheduleAtFixedRate(() -> subscribers.values().forEach(userSubscribers ->
+                userSubscribers.forEach(Subscriber::checkSendTimeout)), checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+        meterRegistry.gauge("tasks.stream.subscribers", subscriberCount);
+        resyncs = meterRegistry.counter("tasks.stream.resyncs");
+        sendTimeouts = meterRegistry.counter("tasks.stream.send-timeouts");
+    }
+
+    @PreDestroy
+    void stop() {
+        heartbeats.shutdownNow();
+        writers.shutdownNow();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(Subscriber::close));
+    }
+
+    /** Opens a stream of the changes to this user's tasks. */
+    public SseEmitter subscribe(UUID userId) {
+        var subscriber = new Subscriber(userId, new SseEmitter(timeoutMillis));
+        subscribers.compute(userId, (id, userSubscribers) -> {
+            var added = userSubscribers == null ? ConcurrentHashMap.<Subscriber>newKeySet() : userSubscribers;
+            added.add(subscriber);
+            return added;
+        });
+        subscriberCount.incrementAndGet();
+        // clients reconnect on their own, ending the stream cleanly lets them
+        subscriber.emitter.onTimeout(subscriber.emitter::complete);
+        subscriber.emitter.onCompletion(subscriber::close);
+        subscriber.emitter.onError(error -> subscriber.close());
+        // sends the response headers right away
+        subscriber.offer(HEARTBEAT_KEY, HEARTBEAT);
+        return subscriber.emitter;
+    }
+
+    /** Publishes the task once the current transaction, if any, has committed. */
+    public void taskCreated(TaskModel task) {
+        afterCommit(() -> publish(task.getUserId(), task.getId(), CREATED, task));
+    }
+
+    /** Also tells the previous owner, if the task moved to another user, that it is gone. */
+    public void taskUpdated(TaskModel task, UUID previousUserId) {
+        afterCommit(() -> {
+            if (!previousUserId.equals(task.getUserId())) {
+                publish(previousUserId, task.getId(), DELETED, Map.of("id", task.getId()));
+            }
+            publish(task.getUserId(), task.getId(), UPDATED, task);
+        });
+    }
+
+    public void taskDeleted(UUID taskId, UUID userId) {
+        afterCommit(() -> publish(userId, taskId, DELETED, Map.of("id", taskId)));
+    }
+
+    private void afterCommit(Runnable publish) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish.run();
+            }
+        });
+    }
+
+    private void publish(UUID userId, UUID taskId, String name, Object data) {
+        var userSubscribers = subscribers.get(userId);
+        if (userSubscribers == null || userSubscribers.isEmpty()) {
+            return;
+        }
+        Event event;
+        try {
+            // serialized once, whatever the number of subscribers
+            event = new Event(name, objectMapper.writeValueAsString(data));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        userSubscribers.forEach(subscriber -> subscriber.offer(taskId, event));
+    }
+
+    // a writer stuck on a client is made up for with an extra thread, until it comes back
+    private synchronized void resizeWriters(int delta) {
+        if (delta > 0) {
+            writers.setMaximumPoolSize(writers.getMaximumPoolSize() + delta);
+            writers.setCorePoolSize(writers.getCorePoolSize() + delta);
+        } else {
+            writers.setCorePoolSize(writers.getCorePoolSize() + delta);
+            writers.setMaximumPoolSize(writers.getMaximumPoolSize() + delta);
+        }
+    }
+
+    private final class Subscriber {
+        private final UUID userId;
+        private final SseEmitter emitter;
+
+        // guarded by this
+        private final LinkedHashMap<UUID, Event> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+        private boolean draining;
+        private boolean closed;
+
+        // System.nanoTime() when the write in progress started, 0 when there is none
+        private volatile long sendingSince;
+        // set once, by the timeout check, when the writer was made up for
+        private boolean timedOut;
+
+        private Subscriber(UUID userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(UUID key, Event event) {
+            synchronized (this) {
+                if (closed || overflowed) {
+                    return;
+                }
+                var previous = pending.remove(key);
+                // the client never saw the task, it is still new to it
+                if (previous != null && CREATED.equals(previous.name()) && UPDATED.equals(event.name())) {
+                    event = new Event(CREATED, event.json());
+                }
+                if (pending.size() < bufferSize) {
+                    pending.put(key, event);
+                } else {
+                    pending.clear();
+                    overflowed = true;
+                }
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            writers.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                Event event;
+                synchronized (this) {
+                    if (closed) {
+                        return;
+                    }
+                    if (overflowed) {
+                        overflowed = false;
+                        event = new Event(RESYNC, "{}");
+                        resyncs.increment();
+                    } else if (pending.isEmpty()) {
+                        draining = false;
+                        return;
+                    } else {
+                        Iterator<Event> first = pending.values().iterator();
+                        event = first.next();
+                        first.remove();
+                    }
+                }
+                sendingSince = System.nanoTime();
+                try {
+                    emitter.send(event == HEARTBEAT
+                            ? SseEmitter.event().comment("")
+                            : SseEmitter.event().name(event.name()).data(event.json(), MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    // the client went away (the emitter then ends the request), or the stream already ended
+                    sendingSince = 0;
+                    close();
+                    writerReturned();
+                    return;
+                }
+                sendingSince = 0;
+                if (writerReturned()) {
+                    // dropped while the write was blocked, end the request now that the emitter is free
+                    emitter.complete();
+                    return;
+                }
+            }
+        }
+
+        // drops the subscriber when its write has been blocked for too long; never touches the emitter, which the
+        // blocked writer holds
+        void checkSendTimeout() {
+            long since = sendingSince;
+            if (since == 0 || System.nanoTime() - since < TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis)) {
+                return;
+            }
+            synchronized (this) {
+                if (timedOut) {
+                    return;
+                }
+                timedOut = true;
+            }
+            close();
+            sendTimeouts.increment();
+            resizeWriters(1);
+        }
+
+        // gives back the extra writer if this one had been made up for, returning whether it had
+        private boolean writerReturned() {
+            synchronized (this) {
+                if (!timedOut) {
+                    return false;
+                }
+            }
+            resizeWriters(-1);
+            return true;
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending.clear();
+            }
+            subscribers.computeIfPresent(userId, (id, userSubscribers) -> {
+                userSubscribers.remove(this);
+                return userSubscribers.isEmpty() ? null : userSubscribers;
+            });
+            subscriberCount.decrementAndGet();
+        }
+    }
+}
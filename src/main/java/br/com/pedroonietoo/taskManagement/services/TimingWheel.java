@@ -0,0 +1,153 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: {@value #LEVELS} wheels of {@value #SLOTS} slots, a slot of one level spanning a whole
+ * turn of the level below. Timers are linked into their slot through their own fields, so scheduling and cancelling
+ * are O(1) and allocate nothing; a timer is moved one level down when its slot comes up, at most
+ * {@code LEVELS - 1} times before it fires. Deadlines are in ticks. Not thread safe.
+ */
+public final class TimingWheel {
+
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    static final int LEVELS = 4;
+    private static final int MASK = SLOTS - 1;
+
+    /** Furthest a deadline may be from the next tick. */
+    public static final long RANGE = 1L << (SLOT_BITS * LEVELS);
+
+    /** Extended by whatever is scheduled, which keeps a pending timer down to its payload plus 24 bytes. */
+    public abstract static class Timer {
+        private Timer prev;
+        private Timer next;
+        private int slot = -1;
+        private long deadline;
+
+        public boolean isScheduled() {
+            return slot >= 0;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+    }
+
+    private final Timer[] slots = new Timer[SLOTS * LEVELS];
+    private long nextTick;
+    private int size;
+
+    public TimingWheel(long startTick) {
+        this.nextTick = startTick;
+    }
+
+    /** Schedules the timer, or moves it if it already is. Deadlines already reached fire on the next tick. */
+    public void schedule(Timer timer, long deadline) {
+        if (deadline - nextTick >= RANGE) {
+            throw new IllegalArgumentException("Deadline is more than " + RANGE + " ticks ahead");
+        }
+        if (timer.isScheduled()) {
+            unlink(timer);
+        } else {
+            size++;
+        }
+        timer.deadline = deadline;
+        link(timer);
+    }
+
+    /** Returns false when the timer was not scheduled. */
+    public boolean cancel(Timer timer) {
+        if (!timer.isScheduled()) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Fires every timer due up to {@code tick}, in deadline order across ticks. The consumer may schedule the timer
+     * again.
+     */
+    public void advanceTo(long tick, Consumer<? super Timer> expired) {
+        while (nextTick <= tick) {
+            // like the low digits of a counter rolling over, a level is emptied into the ones below every time
+            // the levels below it have all come back to slot 0
+            int index = (int) nextTick & MASK;
+            for (int level = 1; index == 0 && level < LEVELS; level++) {
+                index = (int) (nextTick >>> (level * SLOT_BITS)) & MASK;
+                cascade(level * SLOTS + index);
+            }
+            Timer timer = detach((int) nextTick & MASK);
+            nextTick++;
+            while (timer != null) {
+                Timer following = timer.next;
+                timer.prev = timer.next = null;
+                size--;
+                expired.accept(timer);
+                timer = following;
+            }
+        }
+    }
+
+    public long nextTick() {
+        return nextTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int slot) {
+        Timer timer = detach(slot);
+        while (timer != null) {
+            Timer following = timer.next;
+            timer.prev = timer.next = null;
+            link(timer);
+            timer = following;
+        }
+    }
+
+    private Timer detach(int slot) {
+        Timer head = slots[slot];
+        slots[slot] = null;
+        for (Timer timer = head; timer != null; timer = timer.next) {
+            timer.slot = -1;
+        }
+        return head;
+    }
+
+    private void link(Timer timer) {
+        long delta = timer.deadline - nextTick;
+        int slot;
+        if (delta < 0) {
+            slot = (int) nextTick & MASK;
+        } else {
+            int level = 0;
+            while (level < LEVELS - 1 && delta >= 1L << ((level + 1) * SLOT_BITS)) {
+                level++;
+            }
+            slot = level * SLOTS + ((int) (timer.deadline >>> (level * SLOT_BITS)) & MASK);
+        }
+        timer.slot = slot;
+        timer.next = slots[slot];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        slots[slot] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            slots[timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = timer.next = null;
+        timer.slot = -1;
+    }
+}
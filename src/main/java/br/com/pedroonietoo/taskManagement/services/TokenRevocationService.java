@@ -0,0 +1,46 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import br.com.pedroonietoo.taskManagement.repositories.UserRepository;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+/**
+ * Tells whether a token still matches its user: tokens carry the user's version, and every change to the user (role
+ * or e-mail change, deletion) bumps it. Only needed when the principal is rebuilt from token claims instead of the
+ * database.
+ *
+ * <p>Current versions are read from the database and remembered for {@code token.claims-principal.version-check-ms},
+ * so a change made through another instance is seen within that delay; changes made through this one are seen at once.
+ */
+@Service
+public class TokenRevocationService {
+
+    private final LoadingCache<UUID, Optional<Long>> currentVersions;
+
+    public TokenRevocationService(UserRepository userRepository,
+                                  @Value("${token.claims-principal.version-check-ms}") long versionCheckMs,
+                                  @Value("${token.claims-principal.max-users}") long maxUsers) {
+        this.currentVersions = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofMillis(versionCheckMs))
+                .build(userRepository::findVersionById);
+    }
+
+    /** Called after the user was changed or deleted through this instance. */
+    public void revokeTokensOf(UUID userId) {
+        currentVersions.invalidate(userId);
+    }
+
+    /** A token is revoked once its user is gone or has changed since it was issued. */
+    public boolean isRevoked(UUID userId, long tokenVersion) {
+        return currentVersions.get(userId).map(version -> version != tokenVersion).orElse(true);
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.pedroonietoo.taskManagement.dtos.TaskReminder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * POSTs each reminder as JSON to {@code reminders.webhook.url}. Fire and forget: requests are sent asynchronously,
+ * failures are logged and not retried.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("reminders.webhook.url")
+public class WebhookReminderSink implements ReminderSink {
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper objectMapper;
+    private final URI url;
+
+    public WebhookReminderSink(ObjectMapper objectMapper, @Value("${reminders.webhook.url}") URI url) {
+        this.objectMapper = objectMapper;
+        this.url = url;
+    }
+
+    @Override
+    public void send(TaskReminder reminder) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(reminder);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        var request = HttpRequest.newBuilder(url)
+                .timeout(Duration.ofSeconds(10))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error != null) {
+                log.warn("Reminder webhook failed for task {}: {}", reminder.taskId(), error.toString());
+            } else if (response.statusCode() >= 300) {
+                log.warn("Reminder webhook answered {} for task {}", response.statusCode(), reminder.taskId());
+            }
+        });
+    }
+}
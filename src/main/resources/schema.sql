@@ -0,0 +1,190 @@
+-- Runs after Hibernate has created/updated the tables (spring.jpa.defer-datasource-initialization), for the
+-- Postgres-specific objects JPA annotations cannot describe. Every statement must be safe to run on each startup.
+
+-- A range cannot end before it starts, so the GiST indexes below fail on such rows, which PUT /tasks/{id} used to
+-- accept: swap their dates, then keep new ones out
+UPDATE tasks SET start_at = end_at, end_at = start_at WHERE start_at > end_at;
+DO 'BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''tasks_start_at_before_end_at'') THEN
+        ALTER TABLE tasks ADD CONSTRAINT tasks_start_at_before_end_at CHECK (start_at <= end_at);
+    END IF;
+END';
+
+-- Calendar window queries: tasks whose [start_at, end_at] overlaps a range, optionally for a single user
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+CREATE INDEX IF NOT EXISTS idx_tasks_time_range ON tasks USING gist (tsrange(start_at, end_at, '[]'));
+CREATE INDEX IF NOT EXISTS idx_tasks_user_id_time_range ON tasks USING gist (user_id, tsrange(start_at, end_at, '[]'));
+
+-- Tombstones used to be keyed by task alone; a task moved between users now leaves one per previous owner
+DO 'DECLARE
+    pkey text;
+BEGIN
+    SELECT conname INTO pkey FROM pg_constraint
+    WHERE conrelid = ''task_tombstones''::regclass AND contype = ''p'' AND array_length(conkey, 1) = 1;
+    IF pkey IS NOT NULL THEN
+        EXECUTE format(''ALTER TABLE task_tombstones DROP CONSTRAINT %I, ADD PRIMARY KEY (task_id, user_id)'', pkey);
+    END IF;
+END';
+
+-- Optimistic locking: rows created before the version column existed start at version 0
+UPDATE tasks SET version = 0 WHERE version IS NULL;
+UPDATE users SET version = 0 WHERE version IS NULL;
+
+-- Delta sync: rows created before updated_at existed count as changed when they were created
+UPDATE tasks SET updated_at = COALESCE(created_at, now()) WHERE updated_at IS NULL;
+
+-- Priority used to be free text: convert it once to the Priority enum's ordinal (URGENT 0, HIGH 1, MEDIUM 2, LOW 3),
+-- anything else becoming MEDIUM. The block is quoted with '' rather than $$, which the script splitter does not know
+DO 'BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = ''tasks'' AND column_name = ''priority'' AND data_type = ''character varying'') THEN
+        ALTER TABLE tasks ALTER COLUMN priority TYPE smallint USING CASE upper(trim(priority))
+            WHEN ''URGENT'' THEN 0 WHEN ''HIGH'' THEN 1 WHEN ''MEDIUM'' THEN 2 WHEN ''LOW'' THEN 3 ELSE 2 END;
+    END IF;
+END';
+
+-- Full-text search (GET /tasks/search): Postgres recomputes the generated column on every write, title weighing more
+-- than description. 'simple' does no stemming, so search works the same whatever language tasks are written in.
+-- Searches are scoped to a user, which btree_gin lets the same GIN index filter on
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(title, '')), 'A') || setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+) STORED;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+CREATE INDEX IF NOT EXISTS idx_tasks_user_id_search_vector ON tasks USING gin (user_id, search_vector);
+
+-- Task statistics (GET /tasks/stats): counts kept up to date by triggers, in the transaction of every task write,
+-- so reading them never touches the tasks table. Counts by day keep the date-dependent figures down to a few rows:
+-- starts are only counted from today on, and ends before today are added up in the '-infinity' row. Rows for days
+-- that have passed since are folded in by the periodic rebuild (TaskStatsService), which also corrects any drift.
+CREATE TABLE IF NOT EXISTS task_counts_by_priority (
+    user_id uuid NOT NULL,
+    priority smallint NOT NULL, -- -1 for tasks without a priority
+    tasks bigint NOT NULL,
+    PRIMARY KEY (user_id, priority)
+);
+CREATE TABLE IF NOT EXISTS task_counts_by_day (
+    user_id uuid NOT NULL,
+    day date NOT NULL,
+    starting bigint NOT NULL,
+    ending bigint NOT NULL,
+    PRIMARY KEY (user_id, day)
+);
+
+-- Adds delta (1 or -1) per task to the counts. The advisory lock is shared between writers and taken exclusively by
+-- the rebuild of a user's counts; rows are upserted in key order so concurrent writes cannot deadlock on them
+CREATE OR REPLACE FUNCTION count_tasks(user_ids uuid[], priorities smallint[], start_ats timestamp[], end_ats timestamp[], deltas int[])
+RETURNS void LANGUAGE plpgsql AS 'BEGIN
+    PERFORM pg_advisory_xact_lock_shared(hashtextextended(user_id::text, 0))
+    FROM (SELECT DISTINCT unnest(user_ids) AS user_id ORDER BY 1) u;
+
+    INSERT INTO task_counts_by_priority AS t (user_id, priority, tasks)
+    SELECT c.user_id, coalesce(c.priority, -1), sum(c.delta)
+    FROM unnest(user_ids, priorities, deltas) AS c(user_id, priority, delta)
+    GROUP BY c.user_id, c.priority HAVING sum(c.delta) <> 0 ORDER BY 1, 2
+    ON CONFLICT (user_id, priority) DO UPDATE SET tasks = t.tasks + excluded.tasks;
+
+    INSERT INTO task_counts_by_day AS t (user_id, day, starting, ending)
+    SELECT d.user_id, d.day, sum(d.starting), sum(d.ending) FROM (
+        SELECT c.user_id, c.start_at::date AS day, c.delta AS starting, 0 AS ending
+        FROM unnest(user_ids, start_ats, deltas) AS c(user_id, start_at, delta)
+        WHERE c.start_at >= current_date
+        UNION ALL
+        SELECT c.user_id, CASE WHEN c.end_at < current_date THEN ''-infinity''::date ELSE c.end_at::date END, 0, c.delta
+        FROM unnest(user_ids, end_ats, deltas) AS c(user_id, end_at, delta)
+        WHERE c.end_at IS NOT NULL
+    ) d
+    GROUP BY d.user_id, d.day HAVING sum(d.starting) <> 0 OR sum(d.ending) <> 0 ORDER BY 1, 2
+    ON CONFLICT (user_id, day) DO UPDATE SET starting = t.starting + excluded.starting, ending = t.ending + excluded.ending;
+END';
+
+-- One call per statement rather than per row: a batched multi-row insert updates each count once
+CREATE OR REPLACE FUNCTION count_changed_tasks() RETURNS trigger LANGUAGE plpgsql AS 'BEGIN
+    IF TG_OP = ''INSERT'' THEN
+        PERFORM count_tasks(array_agg(user_id), array_agg(priority), array_agg(start_at), array_agg(end_at), array_agg(1))
+        FROM new_rows HAVING count(*) > 0;
+    ELSIF TG_OP = ''DELETE'' THEN
+        PERFORM count_tasks(array_agg(user_id), array_agg(priority), array_agg(start_at), array_agg(end_at), array_agg(-1))
+        FROM old_rows HAVING count(*) > 0;
+    ELSE
+        PERFORM count_tasks(array_agg(user_id), array_agg(priority), array_agg(start_at), array_agg(end_at), array_agg(delta))
+        FROM (SELECT user_id, priority, start_at, end_at, -1 AS delta FROM old_rows
+              UNION ALL SELECT user_id, priority, start_at, end_at, 1 FROM new_rows) c HAVING count(*) > 0;
+    END IF;
+    RETURN NULL;
+END';
+CREATE OR REPLACE TRIGGER tasks_count_inserted AFTER INSERT ON tasks
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION count_changed_tasks();
+CREATE OR REPLACE TRIGGER tasks_count_updated AFTER UPDATE ON tasks
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION count_changed_tasks();
+CREATE OR REPLACE TRIGGER tasks_count_deleted AFTER DELETE ON tasks
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION count_changed_tasks();
+
+-- The user's counts as they read today, passed days folded in and zeros dropped, for comparing before and after a rebuild
+CREATE OR REPLACE FUNCTION task_counts_of(uid uuid) RETURNS text LANGUAGE sql STABLE AS 'SELECT concat_ws(''|'',
+    (SELECT string_agg(priority || '':'' || tasks, '','' ORDER BY priority)
+     FROM task_counts_by_priority WHERE user_id = uid AND tasks <> 0),
+    (SELECT string_agg(day || '':'' || starting || '':'' || ending, '','' ORDER BY day) FROM (
+        SELECT CASE WHEN day < current_date THEN ''-infinity''::date ELSE day END AS day,
+               sum(CASE WHEN day < current_date THEN 0 ELSE starting END) AS starting, sum(ending) AS ending
+        FROM task_counts_by_day WHERE user_id = uid GROUP BY 1) d
+     WHERE starting <> 0 OR ending <> 0))';
+
+-- Recounts one user's tasks from scratch, returning whether the stored counts had drifted. Writers to the user's
+-- tasks wait on the advisory lock meanwhile; the ones already past it have committed by the time it is granted
+CREATE OR REPLACE FUNCTION reconcile_task_counts(uid uuid) RETURNS boolean LANGUAGE plpgsql AS 'DECLARE
+    stored text;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtextextended(uid::text, 0));
+    stored := task_counts_of(uid);
+    DELETE FROM task_counts_by_priority WHERE user_id = uid;
+    DELETE FROM task_counts_by_day WHERE user_id = uid;
+    PERFORM count_tasks(array_agg(user_id), array_agg(priority), array_agg(start_at), array_agg(end_at), array_agg(1))
+    FROM tasks WHERE user_id = uid HAVING count(*) > 0;
+    RETURN stored IS DISTINCT FROM task_counts_of(uid);
+END';
+
+-- Transactional outbox: every write to tasks and users records its events in outbox_events, in the same transaction
+-- and with one insert per statement, which OutboxRelay then publishes. Payloads use the API's field names, the
+-- priority as its name; users are published without their password, and an update only changing the password (or
+-- nothing) is not an event
+CREATE OR REPLACE FUNCTION outbox_payload(aggregate text, r jsonb) RETURNS jsonb LANGUAGE sql IMMUTABLE AS 'SELECT CASE aggregate
+    WHEN ''task'' THEN jsonb_build_object(''id'', r->''id'', ''title'', r->''title'', ''description'', r->''description'',
+        ''startAt'', r->''start_at'', ''endAt'', r->''end_at'',
+        ''priority'', (ARRAY[''URGENT'', ''HIGH'', ''MEDIUM'', ''LOW''])[(r->>''priority'')::int + 1],
+        ''userId'', r->''user_id'', ''createdAt'', r->''created_at'', ''updatedAt'', r->''updated_at'', ''version'', r->''version'')
+    ELSE jsonb_build_object(''id'', r->''id'', ''username'', r->''username'', ''email'', r->''email'', ''role'', r->''role'',
+        ''createdAt'', r->''created_at'', ''updatedAt'', r->''updated_at'', ''version'', r->''version'')
+END';
+
+CREATE OR REPLACE FUNCTION record_outbox_events() RETURNS trigger LANGUAGE plpgsql AS 'DECLARE
+    aggregate text := TG_ARGV[0];
+BEGIN
+    IF TG_OP = ''INSERT'' THEN
+        INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload, created_at)
+        SELECT aggregate, n.id, aggregate || ''.created'', outbox_payload(aggregate, to_jsonb(n)), localtimestamp
+        FROM new_rows n;
+    ELSIF TG_OP = ''UPDATE'' THEN
+        INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload, created_at)
+        SELECT aggregate, n.id, aggregate || ''.updated'', n.payload, localtimestamp
+        FROM (SELECT r.id, outbox_payload(aggregate, to_jsonb(r)) AS payload FROM new_rows r) n
+        JOIN (SELECT r.id, outbox_payload(aggregate, to_jsonb(r)) AS payload FROM old_rows r) o ON o.id = n.id
+        WHERE n.payload - ''version'' - ''updatedAt'' IS DISTINCT FROM o.payload - ''version'' - ''updatedAt'';
+    ELSE
+        INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload, created_at)
+        SELECT aggregate, o.id, aggregate || ''.deleted'', outbox_payload(aggregate, to_jsonb(o)), localtimestamp
+        FROM old_rows o;
+    END IF;
+    RETURN NULL;
+END';
+CREATE OR REPLACE TRIGGER tasks_outbox_inserted AFTER INSERT ON tasks
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION record_outbox_events('task');
+CREATE OR REPLACE TRIGGER tasks_outbox_updated AFTER UPDATE ON tasks
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION record_outbox_events('task');
+CREATE OR REPLACE TRIGGER tasks_outbox_deleted AFTER DELETE ON tasks
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION record_outbox_events('task');
+CREATE OR REPLACE TRIGGER users_outbox_inserted AFTER INSERT ON users
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION record_outbox_events('user');
+CREATE OR REPLACE TRIGGER users_outbox_updated AFTER UPDATE ON users
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION record_outbox_events('user');
+CREATE OR REPLACE TRIGGER users_outbox_deleted AFTER DELETE ON users
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION record_outbox_events('user');
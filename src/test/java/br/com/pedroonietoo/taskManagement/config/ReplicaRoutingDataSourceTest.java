@@ -0,0 +1,117 @@
+package br.com.pedroonietoo.taskManagement.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import br.com.pedroonietoo.taskManagement.models.Role;
+import br.com.pedroonietoo.taskManagement.models.UserModel;
+
+/**
+ * Routes between two in-memory H2 databases, each knowing its own name, wired the way {@link DataSourceConfig} does.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        // the health check runs once at startup, a replica failing later is only noticed by the reads
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofMinutes(1), Duration.ofHours(1));
+        var dataSource = new LazyConnectionDataSourceProxy(routing);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        routing.close();
+        primary.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertEquals("replica", readOnly.execute(status -> node()));
+        assertEquals("primary", readWrite.execute(status -> node()));
+        // outside a transaction nothing says the statement only reads
+        assertEquals("primary", node());
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenTheReplicaIsDown() {
+        replica.close();
+
+        assertEquals("primary", readOnly.execute(status -> node()));
+        assertEquals("primary", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void writerReadsFromThePrimaryAfterCommitting() {
+        signIn(UUID.randomUUID());
+        assertEquals("replica", readOnly.execute(status -> node()));
+
+        readWrite.executeWithoutResult(status -> jdbc.update("UPDATE node SET writes = writes + 1"));
+
+        assertEquals("primary", readOnly.execute(status -> node()));
+        signIn(UUID.randomUUID());
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void rolledBackWriteDoesNotStick() {
+        signIn(UUID.randomUUID());
+
+        readWrite.executeWithoutResult(status -> {
+            jdbc.update("UPDATE node SET writes = writes + 1");
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+
+    private String node() {
+        return jdbc.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static void signIn(UUID userId) {
+        var user = UserModel.builder().id(userId).email(userId + "@example.com").role(Role.ROLE_USER).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private static HikariDataSource database(String name) {
+        var dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID());
+        dataSource.setMaximumPoolSize(2);
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name varchar(20), writes int)");
+        jdbc.update("INSERT INTO node VALUES (?, 0)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.pedroonietoo.taskManagement.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import br.com.pedroonietoo.taskManagement.dtos.SparseFields;
+
+class ETagsTest {
+
+    @Test
+    void tagNamesTheFormatAndFieldsOfTheRepresentation() {
+        assertEquals("3", ETags.of(3, null, MediaType.APPLICATION_JSON));
+        assertEquals("3-cbor", ETags.of(3, null, ETags.CBOR));
+        assertEquals("3-smile", ETags.of(3, null, ETags.SMILE));
+        assertEquals("3-json-id,title", ETags.of(3, new SparseFields(List.of("id", "title")), MediaType.APPLICATION_JSON));
+        assertEquals("3-cbor-id", ETags.of(3, new SparseFields(List.of("id")), ETags.CBOR));
+    }
+
+    @Test
+    void ifMatchAcceptsTheTagOfAnyRepresentation() {
+        assertEquals(3, ETags.ifMatchVersion("\"3\""));
+        assertEquals(3, ETags.ifMatchVersion("\"3-cbor-id,title\""));
+        assertEquals(ETags.ANY_VERSION, ETags.ifMatchVersion(null));
+        assertEquals(ETags.ANY_VERSION, ETags.ifMatchVersion("*"));
+        assertNull(ETags.ifMatchVersion("W/\"3\""));
+        assertNull(ETags.ifMatchVersion("\"-1\""));
+        assertNull(ETags.ifMatchVersion("\"x-cbor\""));
+    }
+
+    @Test
+    void negotiatesLikeTheConverters() {
+        assertEquals(MediaType.APPLICATION_JSON, ETags.negotiate(null));
+        assertEquals(MediaType.APPLICATION_JSON, ETags.negotiate("*/*"));
+        assertEquals(ETags.CBOR, ETags.negotiate("application/cbor"));
+        assertEquals(ETags.SMILE, ETags.negotiate("application/json;q=0.5, application/x-jackson-smile"));
+        assertEquals(MediaType.APPLICATION_JSON, ETags.negotiate("application/cbor, application/json"));
+        assertEquals(ETags.SMILE, ETags.negotiate("*/*, application/json;q=0"));
+        assertNull(ETags.negotiate("text/html"));
+    }
+}
@@ -0,0 +1,208 @@
+package br.com.pedroonietoo.taskManagement.controllers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.pedroonietoo.taskManagement.dtos.PageCursor;
+import br.com.pedroonietoo.taskManagement.errors.RestExceptionHandler;
+import br.com.pedroonietoo.taskManagement.models.Role;
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+import br.com.pedroonietoo.taskManagement.models.UserModel;
+import br.com.pedroonietoo.taskManagement.repositories.TaskRepository;
+import br.com.pedroonietoo.taskManagement.repositories.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+class TaskControllerTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private TaskController taskController;
+
+    private MockMvc mockMvc;
+
+    private final UserModel principal = UserModel.builder().id(UUID.randomUUID()).role(Role.ROLE_USER).build();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(taskController)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        ReflectionTestUtils.setField(taskController, "maxPageSize", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void updateTaskRejectsStartAfterEnd() throws Exception {
+        mockMvc.perform(put("/tasks/{id}", UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"title": "Task", "description": "Description", "startAt": "2030-01-02T10:00:00",
+                                 "endAt": "2030-01-01T10:00:00", "priority": "HIGH", "userId": "%s"}
+                                """.formatted(UUID.randomUUID())))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Start date must be before than end date"));
+
+        verify(taskRepository, never()).updateById(any(), any(), anyLong(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void updateTaskRejectsLongTitle() throws Exception {
+        mockMvc.perform(put("/tasks/{id}", UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"title": "%s", "description": "Description", "startAt": "2030-01-01T10:00:00",
+                                 "endAt": "2030-01-02T10:00:00", "priority": "HIGH", "userId": "%s"}
+                                """.formatted("x".repeat(51), UUID.randomUUID())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("title size must be between 0 and 50"));
+
+        verify(taskRepository, never()).updateById(any(), any(), anyLong(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void updateTaskReportsMissingTask() throws Exception {
+        var userId = UUID.randomUUID();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(UserModel.builder().id(userId).build()));
+        when(taskRepository.updateById(any(), any(), anyLong(), any(), any(), any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(put("/tasks/{id}", UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"title": "Task", "description": "Description", "startAt": "2030-01-01T10:00:00",
+                                 "endAt": "2030-01-02T10:00:00", "priority": "HIGH", "userId": "%s"}
+                                """.formatted(userId)))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Task not found"));
+    }
+
+    @Test
+    void updateTaskOfAnotherUserIsNotFound() throws Exception {
+        var taskId = UUID.randomUUID();
+        when(userRepository.findById(principal.getId())).thenReturn(Optional.of(principal));
+        when(taskRepository.updateById(eq(taskId), eq(principal.getId()), eq(3L), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(taskRepository.existsByIdAndUserId(taskId, principal.getId())).thenReturn(false);
+
+        // someone else's task, which the user tries to move into their own account
+        mockMvc.perform(put("/tasks/{id}", taskId)
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"title": "Task", "description": "Description", "startAt": "2030-01-01T10:00:00",
+                                 "endAt": "2030-01-02T10:00:00", "priority": "HIGH", "userId": "%s"}
+                                """.formatted(principal.getId())))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Task not found"));
+
+        verify(taskRepository, never()).existsById(any());
+    }
+
+    @Test
+    void deleteTaskOfAnotherUserIsNotFound() throws Exception {
+        var taskId = UUID.randomUUID();
+        when(taskRepository.deleteById(eq(taskId), eq(principal.getId()), eq(3L), any())).thenReturn(Optional.empty());
+        when(taskRepository.existsByIdAndUserId(taskId, principal.getId())).thenReturn(false);
+
+        mockMvc.perform(delete("/tasks/{id}", taskId).header("If-Match", "\"3\""))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Task not found"));
+
+        verify(taskRepository, never()).existsById(any());
+    }
+
+    @Test
+    void getTasksResumesAfterTheCursorItReturned() throws Exception {
+        // the same creation time: the id orders them
+        var createdAt = LocalDateTime.of(2030, 1, 1, 10, 0);
+        var tasks = List.of(task(createdAt), task(createdAt), task(createdAt));
+        when(taskRepository.findPage(any(), isNull(), eq(3))).thenReturn(tasks);
+
+        var body = mockMvc.perform(get("/tasks/").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[1].id").value(tasks.get(1).getId().toString()))
+                .andReturn().getResponse().getContentAsString();
+        var nextCursor = new ObjectMapper().readTree(body).get("nextCursor").asText();
+        var after = new PageCursor(createdAt, tasks.get(1).getId());
+        when(taskRepository.findPage(any(), eq(after), eq(3))).thenReturn(List.of(tasks.get(2)));
+
+        mockMvc.perform(get("/tasks/").param("size", "2").param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(tasks.get(2).getId().toString()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getTasksRejectsMalformedCursor() throws Exception {
+        mockMvc.perform(get("/tasks/").param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid cursor"));
+
+        verify(taskRepository, never()).findPage(any(), any(), anyInt());
+    }
+
+    @Test
+    void getTasksClampsThePageSize() throws Exception {
+        mockMvc.perform(get("/tasks/").param("size", "1000")).andExpect(status().isOk());
+        mockMvc.perform(get("/tasks/").param("size", "0")).andExpect(status().isOk());
+
+        // one extra row tells whether there is a next page
+        verify(taskRepository).findPage(any(), isNull(), eq(101));
+        verify(taskRepository).findPage(any(), isNull(), eq(2));
+    }
+
+    private static TaskModel task(LocalDateTime createdAt) {
+        var task = new TaskModel();
+        task.setId(UUID.randomUUID());
+        task.setTitle("Task");
+        task.setCreatedAt(createdAt);
+        return task;
+    }
+}
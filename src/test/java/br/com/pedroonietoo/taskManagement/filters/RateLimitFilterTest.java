@@ -0,0 +1,128 @@
+package br.com.pedroonietoo.taskManagement.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import br.com.pedroonietoo.taskManagement.config.RateLimitProperties;
+import br.com.pedroonietoo.taskManagement.config.RateLimitProperties.Limit;
+import br.com.pedroonietoo.taskManagement.config.RateLimitProperties.Rule;
+import br.com.pedroonietoo.taskManagement.models.Role;
+import br.com.pedroonietoo.taskManagement.models.UserModel;
+import br.com.pedroonietoo.taskManagement.services.RateLimitService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new RateLimitProperties(true, 1000, Duration.ofMinutes(10), List.of(
+                new Rule("auth", List.of("/api/v1/signin"), Set.of("POST"), new Limit(1, 0.4), Map.of()),
+                new Rule("api", List.of("/tasks/**"), Set.of(), new Limit(2, 0.1), Map.of(Role.ROLE_ADMIN, new Limit(4, 0.1)))));
+        filter = new RateLimitFilter(new RateLimitService(properties), properties,
+                new ObjectMapper().registerModule(new JavaTimeModule()), new SimpleMeterRegistry());
+        filter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void anonymousRequestsAreCountedPerClientIp() throws Exception {
+        assertEquals(200, signin("10.0.0.1").getStatus());
+        var rejected = signin("10.0.0.1");
+        assertEquals(429, rejected.getStatus());
+        // 2.5 s until the next token, rounded up
+        assertEquals("3", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+
+        assertEquals(200, signin("10.0.0.2").getStatus());
+    }
+
+    @Test
+    void authenticatedRequestsAreCountedPerUser() throws Exception {
+        var user = user(Role.ROLE_USER);
+        assertEquals(200, getTask(user, "10.0.0.1").getStatus());
+        assertEquals(200, getTask(user, "10.0.0.2").getStatus());
+        assertEquals(429, getTask(user, "10.0.0.3").getStatus());
+
+        assertEquals(200, getTask(user(Role.ROLE_USER), "10.0.0.3").getStatus());
+    }
+
+    @Test
+    void rolesGetTheirOwnLimit() throws Exception {
+        var admin = user(Role.ROLE_ADMIN);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(200, getTask(admin, "10.0.0.1").getStatus());
+        }
+        var rejected = getTask(admin, "10.0.0.1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("10", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void pathsAreMatchedWithinTheContextPath() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            assertEquals(200, call(request("GET", "/app", "/tasks/1", "10.0.0.1")).getStatus());
+        }
+        assertEquals(429, call(request("GET", "/app", "/tasks/1", "10.0.0.1")).getStatus());
+
+        // neither the method nor the path of another rule count against it
+        assertEquals(200, call(request("GET", "/app", "/api/v1/signin", "10.0.0.1")).getStatus());
+        assertEquals(200, call(request("GET", "/app", "/other", "10.0.0.1")).getStatus());
+    }
+
+    private MockHttpServletResponse signin(String remoteAddr) throws Exception {
+        return call(request("POST", "", "/api/v1/signin", remoteAddr));
+    }
+
+    private MockHttpServletResponse getTask(UserModel user, String remoteAddr) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        try {
+            return call(request("GET", "", "/tasks/1", remoteAddr));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private MockHttpServletResponse call(MockHttpServletRequest request) throws Exception {
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String contextPath, String path, String remoteAddr) {
+        var request = new MockHttpServletRequest(method, contextPath + path);
+        request.setContextPath(contextPath);
+        request.setServletPath(path);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private static UserModel user(Role role) {
+        var id = UUID.randomUUID();
+        return UserModel.builder().id(id).email(id + "@example.com").role(role).build();
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.pedroonietoo.taskManagement.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.pedroonietoo.taskManagement.models.OutboxEventModel;
+
+/**
+ * Claims events the way two instances of {@code OutboxRelay} do, in transactions running at the same time. The
+ * events are committed so that the other transaction sees them, and deleted afterwards; the claims roll back.
+ */
+@SpringBootTest
+class OutboxEventRepositoryTest {
+
+    private static final int BATCH = 50;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService relays;
+
+    @BeforeEach
+    void setUp() {
+        relays = Executors.newFixedThreadPool(2);
+        jdbcTemplate.update("""
+                INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload, created_at)
+                SELECT 'test', gen_random_uuid(), 'test.created', '{}'::jsonb, localtimestamp FROM generate_series(1, ?)""",
+                3 * BATCH);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        relays.shutdownNow();
+        relays.awaitTermination(10, TimeUnit.SECONDS);
+        jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_type = 'test'");
+    }
+
+    @Test
+    void concurrentClaimsTakeDisjointBatches() throws Exception {
+        var transaction = new TransactionTemplate(transactionManager);
+        for (int round = 0; round < 20; round++) {
+            // both claim before either ends its transaction, as relays polling at the same time do
+            var bothClaimed = new CyclicBarrier(2);
+            var claims = List.of(
+                    CompletableFuture.supplyAsync(() -> claim(transaction, bothClaimed), relays),
+                    CompletableFuture.supplyAsync(() -> claim(transaction, bothClaimed), relays));
+
+            var ids = new HashSet<Long>();
+            for (var claim : claims) {
+                List<Long> claimed = claim.get(30, TimeUnit.SECONDS);
+                assertEquals(BATCH, claimed.size(), "round " + round);
+                for (Long id : claimed) {
+                    assertTrue(ids.add(id), "event " + id + " claimed twice in round " + round);
+                }
+            }
+        }
+    }
+
+    private List<Long> claim(TransactionTemplate transaction, CyclicBarrier bothClaimed) {
+        return transaction.execute(status -> {
+            var ids = outboxEventRepository.claim(BATCH).stream().map(OutboxEventModel::getId).toList();
+            try {
+                bothClaimed.await(30, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            status.setRollbackOnly();
+            return ids;
+        });
+    }
+}
@@ -0,0 +1,154 @@
+package br.com.pedroonietoo.taskManagement.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.pedroonietoo.taskManagement.dtos.PageCursor;
+import br.com.pedroonietoo.taskManagement.dtos.SearchCursor;
+import br.com.pedroonietoo.taskManagement.dtos.TaskFilter;
+import br.com.pedroonietoo.taskManagement.dtos.TaskSearchHit;
+import br.com.pedroonietoo.taskManagement.models.Priority;
+import br.com.pedroonietoo.taskManagement.models.TaskModel;
+
+/**
+ * Runs the hand-written queries against the same database as the application; every test rolls back.
+ */
+@SpringBootTest
+@Transactional
+class TaskRepositoryTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void findPageBreaksCreatedAtTiesById() {
+        var createdAt = LocalDateTime.of(2030, 1, 1, 10, 0);
+        var ids = new ArrayList<UUID>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(insertTask("Task " + i, createdAt));
+        }
+        ids.add(insertTask("Later task", createdAt.plusSeconds(1)));
+
+        var seen = new ArrayList<UUID>();
+        PageCursor after = null;
+        var filter = new TaskFilter(userId, null, null, null, null, null);
+        do {
+            List<TaskModel> page = taskRepository.findPage(filter, after, 2);
+            page.forEach(task -> seen.add(task.getId()));
+            after = page.size() < 2 ? null : new PageCursor(page.get(1).getCreatedAt(), page.get(1).getId());
+        } while (after != null);
+
+        var expected = new ArrayList<>(ids.subList(0, 5));
+        expected.sort(PageCursor.ID_ORDER);
+        expected.add(ids.get(5));
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void countingTriggersAgreeWithARecount() {
+        var otherUserId = UUID.randomUUID();
+        var today = LocalDate.now().atStartOfDay();
+        // one statement for all of them, as a batch insert sends
+        jdbcTemplate.update("""
+                INSERT INTO tasks (id, title, start_at, end_at, priority, user_id, version) VALUES
+                    (gen_random_uuid(), 'Overdue', ?, ?, 0, ?, 0),
+                    (gen_random_uuid(), 'Today', ?, ?, 1, ?, 0),
+                    (gen_random_uuid(), 'This week', ?, ?, 1, ?, 0),
+                    (gen_random_uuid(), 'Next month', ?, ?, 3, ?, 0),
+                    (gen_random_uuid(), 'No priority', ?, ?, NULL, ?, 0)""",
+                today.minusDays(3), today.minusDays(2), userId,
+                today.plusHours(20), today.plusDays(1), userId,
+                today.plusDays(3), today.plusDays(4), userId,
+                today.plusDays(30), today.plusDays(31), userId,
+                today.plusDays(2), today.plusDays(40), userId);
+        assertCountsMatchARecount(userId);
+        var stats = taskRepository.findStats(userId);
+        assertEquals(5, stats.total());
+        assertEquals(Map.of(Priority.URGENT, 1L, Priority.HIGH, 2L, Priority.LOW, 1L), stats.byPriority());
+        assertEquals(1, stats.overdue());
+        assertEquals(3, stats.upcomingThisWeek());
+
+        jdbcTemplate.update("UPDATE tasks SET priority = 2, start_at = start_at + interval '10 days', end_at = end_at + interval '10 days' WHERE user_id = ? AND priority = 1", userId);
+        assertCountsMatchARecount(userId);
+        assertEquals(1, taskRepository.findStats(userId).upcomingThisWeek());
+
+        jdbcTemplate.update("UPDATE tasks SET user_id = ? WHERE user_id = ? AND priority = 2", otherUserId, userId);
+        assertCountsMatchARecount(userId, otherUserId);
+        assertEquals(3, taskRepository.findStats(userId).total());
+        assertEquals(Map.of(Priority.MEDIUM, 2L), taskRepository.findStats(otherUserId).byPriority());
+
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id IN (?, ?)", userId, otherUserId);
+        assertCountsMatchARecount(userId, otherUserId);
+        assertEquals(0, taskRepository.findStats(userId).total());
+        assertEquals(0, taskRepository.findStats(otherUserId).total());
+    }
+
+    private void assertCountsMatchARecount(UUID... userIds) {
+        for (UUID id : userIds) {
+            assertFalse(taskRepository.reconcileStats(id), "counts of " + id + " drifted");
+        }
+    }
+
+    @Test
+    void searchPagesThroughEqualRanksByIdWithinTheOwnersTasks() {
+        var createdAt = LocalDateTime.of(2030, 1, 1, 10, 0);
+        var titleMatch = insertTask(userId, "Release", "Tag it", createdAt);
+        var descriptionMatches = new ArrayList<UUID>();
+        for (int i = 0; i < 5; i++) {
+            descriptionMatches.add(insertTask(userId, "Task " + i, "Write the release notes", createdAt));
+        }
+        insertTask(userId, "Unrelated", "Nothing to see", createdAt);
+        insertTask(UUID.randomUUID(), "Release", "Write the release notes", createdAt);
+
+        var hits = new ArrayList<TaskSearchHit>();
+        SearchCursor after = null;
+        do {
+            List<TaskSearchHit> page = taskRepository.search(userId, "release", after, 2);
+            hits.addAll(page);
+            // through the encoded form the controller hands out, so the rank survives the round trip exactly
+            after = page.size() < 2 ? null
+                    : SearchCursor.decode(new SearchCursor(page.get(1).rank(), page.get(1).task().getId()).encode());
+        } while (after != null);
+
+        var expected = new ArrayList<UUID>();
+        expected.add(titleMatch);
+        descriptionMatches.sort(PageCursor.ID_ORDER);
+        expected.addAll(descriptionMatches);
+        assertEquals(expected, hits.stream().map(hit -> hit.task().getId()).toList());
+        // title words weigh more than description ones, and the description matches all rank the same
+        assertTrue(hits.get(0).rank() > hits.get(1).rank());
+        assertEquals(1, hits.subList(1, hits.size()).stream().map(TaskSearchHit::rank).distinct().count());
+    }
+
+    private UUID insertTask(String title, LocalDateTime createdAt) {
+        return insertTask(userId, title, "Description", createdAt);
+    }
+
+    private UUID insertTask(UUID ownerId, String title, String description, LocalDateTime createdAt) {
+        var id = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO tasks (id, title, description, start_at, end_at, priority, user_id, created_at, updated_at, version)
+                VALUES (?, ?, ?, ?, ?, 0, ?, ?, ?, 0)""",
+                id, title, description, createdAt.plusDays(1), createdAt.plusDays(2), ownerId, createdAt, createdAt);
+        return id;
+    }
+}
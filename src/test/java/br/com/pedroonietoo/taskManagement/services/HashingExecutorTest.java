@@ -0,0 +1,69 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class HashingExecutorTest {
+
+    private ThreadPoolExecutor hashing;
+    private ThreadPoolExecutor followUp;
+    private HashingExecutor hashingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        hashing = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                new CustomizableThreadFactory("password-hashing-"));
+        followUp = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("password-follow-up-"));
+        hashingExecutor = new HashingExecutor(hashing, followUp, new PasswordHashingService(4), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+        hashing.shutdownNow();
+        followUp.shutdownNow();
+    }
+
+    @Test
+    void followUpRunsOffTheHashingPoolAsTheCaller() throws Exception {
+        var authentication = new UsernamePasswordAuthenticationToken("user", null);
+        var request = new MockHttpServletRequest();
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        var seen = hashingExecutor.encode("password")
+                .thenCompose(hash -> hashingExecutor.matches("password", hash))
+                .thenApply(matches -> {
+                    assertTrue(matches);
+                    assertTrue(Thread.currentThread().getName().startsWith("password-follow-up-"));
+                    assertSame(authentication, SecurityContextHolder.getContext().getAuthentication());
+                    return ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
+                })
+                .join();
+
+        assertSame(request, seen);
+        // nothing is left behind on the pooled thread
+        assertEquals(Boolean.TRUE, followUp.submit(() -> SecurityContextHolder.getContext().getAuthentication() == null
+                && RequestContextHolder.getRequestAttributes() == null).get());
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.pedroonietoo.taskManagement.config.RateLimitProperties;
+
+class RateLimitServiceTest {
+
+    private static final long INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final long BURST = 3 * INTERVAL;
+
+    private final RateLimitService rateLimitService = new RateLimitService(
+            new RateLimitProperties(true, 1000, Duration.ofMinutes(10), List.of()));
+
+    @Test
+    void fullBucketAllowsItsCapacityAtOnce() {
+        long now = 1_000_000_000_000L;
+
+        assertEquals(0, rateLimitService.tryAcquire("key", INTERVAL, BURST, now));
+        assertEquals(0, rateLimitService.tryAcquire("key", INTERVAL, BURST, now));
+        assertEquals(0, rateLimitService.tryAcquire("key", INTERVAL, BURST, now));
+        assertEquals(INTERVAL, rateLimitService.tryAcquire("key", INTERVAL, BURST, now));
+        // a refused request takes nothing
+        assertEquals(INTERVAL, rateLimitService.tryAcquire("key", INTERVAL, BURST, now));
+    }
+
+    @Test
+    void bucketRefillsOneTokenPerInterval() {
+        long now = 1_000_000_000_000L;
+        for (int i = 0; i < 3; i++) {
+            rateLimitService.tryAcquire("key", INTERVAL, BURST, now);
+        }
+
+        assertEquals(INTERVAL / 4, rateLimitService.tryAcquire("key", INTERVAL, BURST, now + INTERVAL * 3 / 4));
+        assertEquals(0, rateLimitService.tryAcquire("key", INTERVAL, BURST, now + INTERVAL));
+        assertEquals(INTERVAL, rateLimitService.tryAcquire("key", INTERVAL, BURST, now + INTERVAL));
+
+        // however long it stays idle, it never holds more than its capacity
+        long later = now + 100 * INTERVAL;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimitService.tryAcquire("key", INTERVAL, BURST, later));
+        }
+        assertEquals(INTERVAL, rateLimitService.tryAcquire("key", INTERVAL, BURST, later));
+    }
+
+    @Test
+    void keysHaveTheirOwnBuckets() {
+        long now = 1_000_000_000_000L;
+        for (int i = 0; i < 3; i++) {
+            rateLimitService.tryAcquire("spent", INTERVAL, BURST, now);
+        }
+
+        assertEquals(0, rateLimitService.tryAcquire("other", INTERVAL, BURST, now));
+    }
+}
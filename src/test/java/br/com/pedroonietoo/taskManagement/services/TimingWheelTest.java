@@ -0,0 +1,135 @@
+package br.com.pedroonietoo.taskManagement.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    private static final class TestTimer extends TimingWheel.Timer {
+    }
+
+    private final List<String> fired = new ArrayList<>();
+
+    private void advance(TimingWheel wheel, long tick) {
+        wheel.advanceTo(tick, timer -> fired.add(wheel.nextTick() - 1 + ":" + timer.deadline()));
+    }
+
+    @Test
+    void firesEachTimerOnItsTickAcrossLevels() {
+        var wheel = new TimingWheel(0);
+        long[] deadlines = {
+                0, 63, 64, 65, 4095, 4096, 4096 + 5, 262144 + 7, TimingWheel.RANGE - 1
+        };
+        for (long deadline : deadlines) {
+            wheel.schedule(new TestTimer(), deadline);
+        }
+        assertEquals(deadlines.length, wheel.size());
+
+        advance(wheel, TimingWheel.RANGE);
+
+        List<String> expected = new ArrayList<>();
+        for (long deadline : deadlines) {
+            expected.add(deadline + ":" + deadline);
+        }
+        assertEquals(expected, fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void firesOnTimeWhenScheduledPartwayThroughATurn() {
+        var wheel = new TimingWheel(100);
+        // lands in the level 1 slot the wheel is currently in, so it must wait for the next turn
+        wheel.schedule(new TestTimer(), 100 + 4090);
+        wheel.schedule(new TestTimer(), 100 + 100);
+
+        advance(wheel, 100 + 4089);
+        assertEquals(List.of("200:200"), fired);
+
+        advance(wheel, 100 + 4090);
+        assertEquals(List.of("200:200", "4190:4190"), fired);
+    }
+
+    @Test
+    void cancelledTimerDoesNotFire() {
+        var wheel = new TimingWheel(0);
+        var cancelled = new TestTimer();
+        var kept = new TestTimer();
+        wheel.schedule(cancelled, 5000);
+        wheel.schedule(kept, 5000);
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(cancelled.isScheduled());
+        assertFalse(wheel.cancel(cancelled));
+        assertEquals(1, wheel.size());
+
+        advance(wheel, 6000);
+        assertEquals(List.of("5000:5000"), fired);
+        assertFalse(wheel.cancel(kept));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rescheduleMovesTheTimer() {
+        var wheel = new TimingWheel(0);
+        var earlier = new TestTimer();
+        var later = new TestTimer();
+        wheel.schedule(earlier, 300000);
+        wheel.schedule(later, 10);
+
+        wheel.schedule(earlier, 20);
+        wheel.schedule(later, 70000);
+        assertEquals(2, wheel.size());
+
+        advance(wheel, 300000);
+        assertEquals(List.of("20:20", "70000:70000"), fired);
+    }
+
+    @Test
+    void timerMayBeScheduledAgainWhenItFires() {
+        var wheel = new TimingWheel(0);
+        var timer = new TestTimer();
+        wheel.schedule(timer, 10);
+
+        wheel.advanceTo(100, expired -> {
+            fired.add(Long.toString(expired.deadline()));
+            if (expired.deadline() == 10) {
+                wheel.schedule(expired, 90);
+            }
+        });
+
+        assertEquals(List.of("10", "90"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void deadlinesAlreadyReachedFireOnTheNextTick() {
+        var wheel = new TimingWheel(1000);
+        wheel.schedule(new TestTimer(), 1000);
+        wheel.schedule(new TestTimer(), 10);
+
+        advance(wheel, 1000);
+
+        assertEquals(2, fired.size());
+        assertTrue(fired.containsAll(List.of("1000:1000", "1000:10")));
+    }
+
+    @Test
+    void rejectsDeadlinesPastTheRange() {
+        var wheel = new TimingWheel(50);
+        var timer = new TestTimer();
+
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule(timer, 50 + TimingWheel.RANGE));
+        assertFalse(timer.isScheduled());
+        assertEquals(0, wheel.size());
+
+        wheel.schedule(timer, 50 + TimingWheel.RANGE - 1);
+        assertTrue(timer.isScheduled());
+    }
+}